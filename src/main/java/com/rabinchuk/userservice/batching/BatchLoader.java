@@ -0,0 +1,150 @@
+package com.rabinchuk.userservice.batching;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent single-key lookups into one batch query. The first lookup opens a batch and waits up to
+ * {@link BatchLoaderSettings#window()} for others to join it; the batch is dispatched when the window ends or when
+ * it reaches {@link BatchLoaderSettings#maxBatchSize()} keys, and every caller gets its own value from the result.
+ * Concurrent lookups of the same key share one slot.
+ * <p>
+ * Batches run on other threads, outside the caller's transaction and request. Lookups for which {@code bypass}
+ * holds, such as those that must see the caller's own writes, are therefore loaded directly on the caller's thread.
+ * <p>
+ * Meters, tagged with the loader name:
+ * <ul>
+ *     <li>{@code batch.loader.size} - keys per dispatched batch</li>
+ *     <li>{@code batch.loader.loads} - time of the batch query</li>
+ * </ul>
+ */
+public class BatchLoader<K, V> implements DisposableBean {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final BatchLoaderSettings settings;
+    private final BooleanSupplier bypass;
+    private final DistributionSummary batchSizes;
+    private final Timer batchLoads;
+
+    private final ScheduledExecutorService windowTimer;
+    private final ExecutorService dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> pending;
+
+    /**
+     * @param batchFunction loads the values of the given keys; keys without a value are left out of the result
+     */
+    public BatchLoader(String name,
+                       Function<Set<K>, Map<K, V>> batchFunction,
+                       BatchLoaderSettings settings,
+                       BooleanSupplier bypass,
+                       MeterRegistry meterRegistry) {
+        this.batchFunction = batchFunction;
+        this.settings = settings;
+        this.bypass = bypass;
+        this.batchSizes = DistributionSummary.builder("batch.loader.size")
+                .tag("loader", name)
+                .register(meterRegistry);
+        this.batchLoads = Timer.builder("batch.loader.loads")
+                .tag("loader", name)
+                .register(meterRegistry);
+        this.windowTimer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("batch-loader-" + name)
+                .daemon(true)
+                .factory());
+    }
+
+    /**
+     * @return the value of the key, or an empty optional if the batch function found none
+     * @throws RuntimeException whatever the batch function threw for the batch of this key
+     */
+    public Optional<V> load(K key) {
+        if (settings.window().isZero() || bypass.getAsBoolean()) {
+            return Optional.ofNullable(batchFunction.apply(Set.of(key)).get(key));
+        }
+        try {
+            return Optional.ofNullable(enqueue(key).join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<V> enqueue(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            if (pending == null) {
+                Map<K, CompletableFuture<V>> batch = new LinkedHashMap<>();
+                pending = batch;
+                windowTimer.schedule(() -> flush(batch), settings.window().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.size() >= settings.maxBatchSize()) {
+                full = pending;
+                pending = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /**
+     * Dispatches the batch at the end of its window, unless it filled up and was dispatched already.
+     */
+    private void flush(Map<K, CompletableFuture<V>> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        batchSizes.record(batch.size());
+        try {
+            dispatchExecutor.execute(() -> {
+                try {
+                    Map<K, V> values = batchLoads.record(() -> batchFunction.apply(batch.keySet()));
+                    batch.forEach((key, future) -> future.complete(values.get(key)));
+                } catch (Throwable e) {
+                    fail(batch, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void fail(Map<K, CompletableFuture<V>> batch, Throwable failure) {
+        batch.values().forEach(future -> future.completeExceptionally(failure));
+    }
+
+    @Override
+    public void destroy() {
+        windowTimer.shutdownNow();
+        dispatchExecutor.shutdownNow();
+    }
+}
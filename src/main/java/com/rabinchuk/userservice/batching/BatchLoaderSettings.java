@@ -0,0 +1,13 @@
+package com.rabinchuk.userservice.batching;
+
+import java.time.Duration;
+
+/**
+ * Tuning of a {@link BatchLoader}.
+ *
+ * @param window       how long the first lookup of a batch waits for others to join it; {@code 0} disables coalescing
+ * @param maxBatchSize keys after which a batch is dispatched without waiting for the window to end
+ */
+public record BatchLoaderSettings(Duration window,
+                                  int maxBatchSize) {
+}
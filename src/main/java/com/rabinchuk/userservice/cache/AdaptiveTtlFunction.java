@@ -0,0 +1,41 @@
+package com.rabinchuk.userservice.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+
+/**
+ * Scales the TTL of an entry with how often its key was read recently. A key read {@code pivotFrequency}
+ * times per sketch window gets {@code baseTtl}; twice as often doubles it, half as often halves it, always
+ * within {@code [minTtl, maxTtl]}. Hot keys stay cached longer, cold ones give their memory back sooner.
+ */
+public class AdaptiveTtlFunction implements RedisCacheWriter.TtlFunction {
+
+    private final String cacheName;
+    private final FrequencySketch frequencySketch;
+    private final Duration baseTtl;
+    private final Duration minTtl;
+    private final Duration maxTtl;
+    private final int pivotFrequency;
+
+    public AdaptiveTtlFunction(String cacheName,
+                               FrequencySketch frequencySketch,
+                               Duration baseTtl,
+                               Duration minTtl,
+                               Duration maxTtl,
+                               int pivotFrequency) {
+        this.cacheName = cacheName;
+        this.frequencySketch = frequencySketch;
+        this.baseTtl = baseTtl;
+        this.minTtl = minTtl;
+        this.maxTtl = maxTtl;
+        this.pivotFrequency = pivotFrequency;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        double factor = (1.0 + frequencySketch.frequency(cacheName, key)) / (1.0 + pivotFrequency);
+        long millis = (long) Math.min(baseTtl.toMillis() * factor, Long.MAX_VALUE);
+        return Duration.ofMillis(Math.clamp(millis, minTtl.toMillis(), maxTtl.toMillis()));
+    }
+}
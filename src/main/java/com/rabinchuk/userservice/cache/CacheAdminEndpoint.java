@@ -0,0 +1,87 @@
+package com.rabinchuk.userservice.cache;
+
+import com.rabinchuk.userservice.service.CardInfoService;
+import com.rabinchuk.userservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/cacheadmin}: statistics of the two-level caches, eviction of single keys or whole
+ * caches, and warming of single keys or of {@code USER_CACHE} from the hot-key snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "cacheadmin")
+public class CacheAdminEndpoint {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheWarmer cacheWarmer;
+    private final UserService userService;
+    private final CardInfoService cardInfoService;
+
+    @ReadOperation
+    public List<CacheStatistics> caches() {
+        return cacheManager.statistics();
+    }
+
+    @ReadOperation
+    public CacheStatistics cache(@Selector String cacheName) {
+        return getCache(cacheName).statistics();
+    }
+
+    @DeleteOperation
+    public void evict(@Selector String cacheName, @Nullable String key) {
+        TwoLevelCache cache = getCache(cacheName);
+        if (key == null) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    @WriteOperation
+    public Map<String, Object> warm(@Selector String cacheName, @Nullable String key) {
+        getCache(cacheName);
+        if (key == null) {
+            if (!CacheNames.USER_CACHE.equals(cacheName)) {
+                throw new InvalidEndpointRequestException("Only " + CacheNames.USER_CACHE + " can be warmed without a key",
+                        "Whole-cache warm-up is not supported for this cache");
+            }
+            return Map.of("cache", cacheName, "warmed", cacheWarmer.warmUp());
+        }
+
+        switch (cacheName) {
+            case CacheNames.USER_CACHE -> userService.getById(parseId(key));
+            case CacheNames.CARD_CACHE -> cardInfoService.getById(parseId(key));
+            case CacheNames.USER_CARDS_CACHE -> cardInfoService.getCardInfoByUserId(parseId(key));
+            case CacheNames.USER_ID_CACHE -> userService.getUserByEmail(key);
+            default -> throw new InvalidEndpointRequestException("Cache " + cacheName + " cannot be warmed", "Unsupported cache");
+        }
+        return Map.of("cache", cacheName, "warmed", 1);
+    }
+
+    private TwoLevelCache getCache(String cacheName) {
+        if (!cacheManager.getCacheNames().contains(cacheName)) {
+            throw new InvalidEndpointRequestException("Unknown cache " + cacheName, "Unknown cache");
+        }
+        return cacheManager.getTwoLevelCache(cacheName);
+    }
+
+    private static Long parseId(String key) {
+        try {
+            return Long.valueOf(key);
+        } catch (NumberFormatException e) {
+            throw new InvalidEndpointRequestException("Key " + key + " is not a numeric id", "Invalid key");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.rabinchuk.userservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.io.IOException;
+
+@Slf4j
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+        } catch (IOException e) {
+            log.warn("Ignoring malformed cache invalidation message", e);
+            return;
+        }
+
+        if (invalidationPublisher.getNodeId().equals(invalidation.origin())) {
+            return;
+        }
+
+        if (invalidation.keys() == null) {
+            cacheManager.clearLocal(invalidation.cacheName());
+        } else {
+            invalidation.keys().forEach(key -> cacheManager.evictLocal(invalidation.cacheName(), key));
+        }
+    }
+}
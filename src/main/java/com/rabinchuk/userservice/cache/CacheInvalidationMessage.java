@@ -0,0 +1,14 @@
+package com.rabinchuk.userservice.cache;
+
+import java.util.List;
+
+/**
+ * Broadcast over Redis pub/sub whenever a node changes cache entries.
+ * {@code null} keys mean the whole cache was cleared.
+ */
+public record CacheInvalidationMessage(
+        String origin,
+        String cacheName,
+        List<String> keys
+) {
+}
@@ -0,0 +1,55 @@
+package com.rabinchuk.userservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Component
+public class CacheInvalidationPublisher {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private final String channel;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate,
+                                      ObjectMapper objectMapper,
+                                      @Value("${app.cache.invalidation-channel:user-service:cache-invalidation}") String channel) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, List.of(String.valueOf(key))));
+    }
+
+    public void publishEvictAll(String cacheName, Collection<?> keys) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, keys.stream().map(String::valueOf).toList()));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, null));
+    }
+
+    private void publish(CacheInvalidationMessage message) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to publish cache invalidation for {}", message, e);
+        }
+    }
+}
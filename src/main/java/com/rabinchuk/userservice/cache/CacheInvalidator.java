@@ -0,0 +1,99 @@
+package com.rabinchuk.userservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evicts cache entries once the surrounding transaction has committed, so a concurrent reader can never
+ * cache the state from before the commit for the full TTL. Keys collected during one transaction are
+ * evicted together, with one shared-cache round trip per cache. Without an active transaction the
+ * eviction happens immediately; after a rollback nothing is evicted.
+ * <p>
+ * With read replicas a reader may still load the old state from a lagging replica after the commit, so the keys
+ * are evicted a second time after {@code app.cache.re-eviction-delay}, which must outlast the allowed lag.
+ */
+@Slf4j
+@Component
+public class CacheInvalidator {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final TaskScheduler taskScheduler;
+    private final Duration reEvictionDelay;
+
+    public CacheInvalidator(TwoLevelCacheManager cacheManager,
+                            TaskScheduler taskScheduler,
+                            @Value("${app.cache.re-eviction-delay:5s}") Duration reEvictionDelay) {
+        this.cacheManager = cacheManager;
+        this.taskScheduler = taskScheduler;
+        this.reEvictionDelay = reEvictionDelay;
+    }
+
+    public void evictAfterCommit(String cacheName, Object key) {
+        if (key == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndScheduleReEviction(Map.of(cacheName, Set.of(key)));
+            return;
+        }
+        pendingEvictions().add(cacheName, key);
+    }
+
+    private PendingEvictions pendingEvictions() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingEvictions pending && pending.owner == this) {
+                return pending;
+            }
+        }
+        PendingEvictions pending = new PendingEvictions(this);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void evictAndScheduleReEviction(Map<String, Set<Object>> keysByCache) {
+        evict(keysByCache);
+        if (reEvictionDelay.isPositive()) {
+            taskScheduler.schedule(() -> evict(keysByCache), Instant.now().plus(reEvictionDelay));
+        }
+    }
+
+    private void evict(Map<String, Set<Object>> keysByCache) {
+        keysByCache.forEach((cacheName, keys) -> {
+            try {
+                cacheManager.getTwoLevelCache(cacheName).evictAll(keys);
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict {} keys from cache {} after commit", keys.size(), cacheName, e);
+            }
+        });
+    }
+
+    private static final class PendingEvictions implements TransactionSynchronization {
+
+        private final CacheInvalidator owner;
+        private final Map<String, Set<Object>> keysByCache = new LinkedHashMap<>();
+
+        private PendingEvictions(CacheInvalidator owner) {
+            this.owner = owner;
+        }
+
+        void add(String cacheName, Object key) {
+            keysByCache.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+        }
+
+        @Override
+        public void afterCommit() {
+            owner.evictAndScheduleReEviction(keysByCache);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.rabinchuk.userservice.cache;
+
+public final class CacheNames {
+
+    public static final String USER_CACHE = "USER_CACHE";
+    public static final String CARD_CACHE = "CARD_CACHE";
+    public static final String USER_CARDS_CACHE = "USER_CARDS_CACHE";
+    public static final String USER_ID_CACHE = "USER_ID_CACHE";
+
+    private CacheNames() {
+    }
+}
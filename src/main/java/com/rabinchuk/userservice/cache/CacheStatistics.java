@@ -0,0 +1,20 @@
+package com.rabinchuk.userservice.cache;
+
+/**
+ * Counters of one cache since this node started, as reported by the {@code cacheadmin} actuator endpoint.
+ */
+public record CacheStatistics(
+        String name,
+        long requests,
+        long localHits,
+        long sharedHits,
+        long misses,
+        double hitRatio,
+        long loads,
+        double meanLoadMillis,
+        double maxLoadMillis,
+        long evictions,
+        long localSize,
+        double meanValueBytes
+) {
+}
@@ -0,0 +1,14 @@
+package com.rabinchuk.userservice.cache;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Cached marker for a key the database does not have. Loading reads turn it back into the
+ * {@link EntityNotFoundException} the loader originally threw, without touching the database.
+ */
+public record CacheTombstone(String message) {
+
+    public EntityNotFoundException toException() {
+        return new EntityNotFoundException(message);
+    }
+}
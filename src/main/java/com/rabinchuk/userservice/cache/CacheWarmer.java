@@ -0,0 +1,73 @@
+package com.rabinchuk.userservice.cache;
+
+import com.rabinchuk.userservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Preloads the hottest users from the shared snapshot into the caches on startup. Runs as an
+ * {@link ApplicationRunner}, so the readiness probe reports {@code ACCEPTING_TRAFFIC} only after the
+ * warm-up has finished or its time budget ran out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer implements ApplicationRunner {
+
+    private final HotKeyTracker userHotKeyTracker;
+    private final UserService userService;
+
+    @Value("${app.cache.warm-up.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.warm-up.size:1000}")
+    private int warmUpSize;
+
+    @Value("${app.cache.warm-up.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.cache.warm-up.time-budget:10s}")
+    private Duration timeBudget;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * @return the number of users requested from the cache within the time budget
+     */
+    public int warmUp() {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        int warmed = 0;
+        try {
+            List<Long> ids = userHotKeyTracker.hottestKeys(warmUpSize).stream()
+                    .map(Long::valueOf)
+                    .toList();
+
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                if (System.nanoTime() - deadline >= 0) {
+                    log.info("Cache warm-up stopped after {} of {} users: time budget of {} exhausted",
+                            warmed, ids.size(), timeBudget);
+                    return warmed;
+                }
+                List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                userService.getByIds(chunk);
+                warmed += chunk.size();
+            }
+            log.info("Cache warm-up loaded {} users", warmed);
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up failed after {} users", warmed, e);
+        }
+        return warmed;
+    }
+}
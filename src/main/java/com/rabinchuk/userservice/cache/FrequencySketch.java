@@ -0,0 +1,76 @@
+package com.rabinchuk.userservice.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-min sketch of recent reads per cache key, shared by all caches of the node. Four counters per key
+ * in a fixed table keep memory constant regardless of the number of keys; the estimate is the smallest of
+ * the four and can only overcount. After {@code 10 * width} reads all counters are halved, so the estimate
+ * follows recent popularity rather than all-time totals.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 1 << 20;
+    private static final long[] SEEDS = {0x97cb3127L, 0xab8c7a79L, 0x7a1b2f4dL, 0xc2b2ae35L};
+
+    private final AtomicIntegerArray table;
+    private final int mask;
+    private final long sampleSize;
+    private final LongAdder additions = new LongAdder();
+
+    public FrequencySketch(int width) {
+        int size = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.table = new AtomicIntegerArray(size * DEPTH);
+        this.mask = size - 1;
+        this.sampleSize = 10L * size;
+    }
+
+    public void increment(String cacheName, Object key) {
+        int hash = hash(cacheName, key);
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            if (table.get(index) < MAX_COUNT) {
+                table.incrementAndGet(index);
+            }
+        }
+
+        additions.increment();
+        if (additions.sum() >= sampleSize) {
+            reset();
+        }
+    }
+
+    public int frequency(String cacheName, Object key) {
+        int hash = hash(cacheName, key);
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table.get(index(hash, row)));
+        }
+        return frequency;
+    }
+
+    private synchronized void reset() {
+        if (additions.sum() < sampleSize) {
+            return;
+        }
+        additions.reset();
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, table.get(i) >>> 1);
+        }
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        int slot = (int) (mixed ^ (mixed >>> 32)) & mask;
+        return row * (mask + 1) + slot;
+    }
+
+    private static int hash(String cacheName, Object key) {
+        int hash = 31 * cacheName.hashCode() + String.valueOf(key).hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,101 @@
+package com.rabinchuk.userservice.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts reads per key of one cache in memory and periodically merges the counts into a Redis sorted set
+ * shared by all nodes. Older scores are decayed on every merge, so the set follows the current hot keys
+ * and survives restarts of the service and of the local counters.
+ */
+@Slf4j
+public class HotKeyTracker {
+
+    @Getter
+    private final String cacheName;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String snapshotKey;
+    private final int snapshotSize;
+    private final int maxTrackedKeys;
+    private final double decay;
+
+    private final AtomicReference<Map<String, LongAdder>> counters = new AtomicReference<>(new ConcurrentHashMap<>());
+
+    public HotKeyTracker(String cacheName,
+                         StringRedisTemplate stringRedisTemplate,
+                         String snapshotKey,
+                         int snapshotSize,
+                         int maxTrackedKeys,
+                         double decay) {
+        this.cacheName = cacheName;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.snapshotKey = snapshotKey;
+        this.snapshotSize = snapshotSize;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.decay = decay;
+    }
+
+    public void record(Object key) {
+        Map<String, LongAdder> current = counters.get();
+        String member = String.valueOf(key);
+        LongAdder counter = current.get(member);
+        if (counter == null) {
+            if (current.size() >= maxTrackedKeys) {
+                return;
+            }
+            counter = current.computeIfAbsent(member, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.hot-keys.snapshot-interval:1m}",
+            initialDelayString = "${app.cache.hot-keys.snapshot-interval:1m}")
+    public void snapshot() {
+        Map<String, LongAdder> collected = counters.getAndSet(new ConcurrentHashMap<>());
+        if (collected.isEmpty()) {
+            return;
+        }
+
+        byte[] rawKey = snapshotKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                mergeSnapshot(connection, rawKey, collected);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to store hot key snapshot for cache {}", cacheName, e);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} keys, hottest first
+     */
+    public List<String> hottestKeys(int limit) {
+        Set<String> keys = stringRedisTemplate.opsForZSet().reverseRange(snapshotKey, 0, limit - 1L);
+        return keys == null ? List.of() : new ArrayList<>(keys);
+    }
+
+    private void mergeSnapshot(RedisConnection connection, byte[] rawKey, Map<String, LongAdder> collected) {
+        if (decay < 1.0) {
+            connection.zSetCommands().zUnionStore(rawKey, Aggregate.SUM, Weights.of(decay), rawKey);
+        }
+        collected.forEach((member, count) ->
+                connection.zSetCommands().zIncrBy(rawKey, count.sum(), member.getBytes(StandardCharsets.UTF_8)));
+        connection.zSetCommands().zRemRange(rawKey, 0, -(snapshotSize + 1L));
+    }
+}
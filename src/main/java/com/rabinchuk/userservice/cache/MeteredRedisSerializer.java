@@ -0,0 +1,34 @@
+package com.rabinchuk.userservice.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Records the size of every value written to Redis in {@code cache.value.size}.
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final DistributionSummary valueSize;
+
+    @SuppressWarnings("unchecked")
+    public MeteredRedisSerializer(RedisSerializer<?> delegate, DistributionSummary valueSize) {
+        this.delegate = (RedisSerializer<Object>) delegate;
+        this.valueSize = valueSize;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            valueSize.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        return delegate.deserialize(bytes);
+    }
+}
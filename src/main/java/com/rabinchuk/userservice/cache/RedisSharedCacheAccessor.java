@@ -0,0 +1,160 @@
+package com.rabinchuk.userservice.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads with one {@code MGET}, writes with one pipeline and evicts with one {@code DEL}, using the same key prefix,
+ * serializers and TTL as the {@link RedisCache} it shadows. Load leases are plain
+ * {@code SET NX PX} keys next to the cached entry and are released with a compare-and-delete script.
+ */
+public class RedisSharedCacheAccessor implements SharedCacheAccessor {
+
+    private static final String LEASE_SUFFIX = ":lease";
+    private static final byte[] RELEASE_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+
+    private final String cacheName;
+    private final RedisCacheConfiguration cacheConfiguration;
+    private final RedisConnectionFactory connectionFactory;
+
+    public RedisSharedCacheAccessor(RedisCache redisCache, RedisConnectionFactory connectionFactory) {
+        this.cacheName = redisCache.getName();
+        this.cacheConfiguration = redisCache.getCacheConfiguration();
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Object> keyList = new ArrayList<>(keys);
+        byte[][] rawKeys = keyList.stream()
+                .map(this::serializeKey)
+                .toArray(byte[][]::new);
+
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+
+        Map<Object, Object> result = new HashMap<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] rawValue = rawValues == null ? null : rawValues.get(i);
+            if (rawValue != null) {
+                Object value = cacheConfiguration.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+                if (value != null) {
+                    result.put(keyList.get(i), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            entries.forEach((key, value) -> {
+                Duration ttl = cacheConfiguration.getTtlFunction().getTimeToLive(key, value);
+                connection.stringCommands().set(serializeKey(key), serializeValue(value),
+                        ttl == null || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl),
+                        RedisStringCommands.SetOption.upsert());
+            });
+            connection.closePipeline();
+        }
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        byte[][] rawKeys = keys.stream()
+                .map(this::serializeKey)
+                .toArray(byte[][]::new);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(rawKeys);
+        }
+    }
+
+    @Override
+    public SharedCacheEntry getWithTtl(Object key) {
+        byte[] rawKey = serializeKey(key);
+        List<Object> results;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            connection.stringCommands().get(rawKey);
+            connection.keyCommands().pTtl(rawKey);
+            results = connection.closePipeline();
+        }
+
+        if (results.size() < 2 || !(results.get(0) instanceof byte[] rawValue)) {
+            return null;
+        }
+        Object value = cacheConfiguration.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+        if (value == null) {
+            return null;
+        }
+        Duration ttl = results.get(1) instanceof Long millis && millis >= 0 ? Duration.ofMillis(millis) : null;
+        return new SharedCacheEntry(value, ttl);
+    }
+
+    @Override
+    public String tryAcquireLease(Object key, Duration leaseTime) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            acquired = connection.stringCommands().set(leaseKey(key), token.getBytes(StandardCharsets.UTF_8),
+                    Expiration.from(leaseTime), RedisStringCommands.SetOption.ifAbsent());
+        }
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    @Override
+    public void releaseLease(Object key, String token) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.scriptingCommands().eval(RELEASE_SCRIPT, ReturnType.INTEGER, 1,
+                    leaseKey(key), token.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private byte[] leaseKey(Object key) {
+        return ByteUtils.concat(serializeKey(key), LEASE_SUFFIX.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] serializeKey(Object key) {
+        String cacheKey = String.valueOf(key);
+        if (cacheConfiguration.usePrefix()) {
+            cacheKey = cacheConfiguration.getKeyPrefixFor(cacheName) + cacheKey;
+        }
+        return ByteUtils.getBytes(cacheConfiguration.getKeySerializationPair().write(cacheKey));
+    }
+
+    private byte[] serializeValue(Object value) {
+        return ByteUtils.getBytes(cacheConfiguration.getValueSerializationPair().write(value));
+    }
+}
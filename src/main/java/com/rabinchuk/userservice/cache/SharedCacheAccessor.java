@@ -0,0 +1,30 @@
+package com.rabinchuk.userservice.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Operations on the shared cache level that {@link org.springframework.cache.Cache} does not offer:
+ * multi-key access, reads that report the remaining TTL, and short per-key loader leases.
+ */
+public interface SharedCacheAccessor {
+
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    void putAll(Map<?, ?> entries);
+
+    void evictAll(Collection<?> keys);
+
+    /**
+     * @return the entry, or {@code null} on a miss; {@link SharedCacheEntry#ttl()} is {@code null} when unknown
+     */
+    SharedCacheEntry getWithTtl(Object key);
+
+    /**
+     * @return a lease token, or {@code null} if another loader holds the lease for {@code key}
+     */
+    String tryAcquireLease(Object key, Duration leaseTime);
+
+    void releaseLease(Object key, String token);
+}
@@ -0,0 +1,9 @@
+package com.rabinchuk.userservice.cache;
+
+import java.time.Duration;
+
+public record SharedCacheEntry(
+        Object value,
+        Duration ttl
+) {
+}
@@ -0,0 +1,59 @@
+package com.rabinchuk.userservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fallback for shared caches without native multi-key operations, TTL reads or leases.
+ * Leases are always granted, so only the in-process single-flight applies.
+ */
+@RequiredArgsConstructor
+public class SimpleSharedCacheAccessor implements SharedCacheAccessor {
+
+    private final Cache cache;
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = new HashMap<>();
+        for (Object key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                result.put(key, wrapper.get());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        entries.forEach(cache::put);
+    }
+
+    @Override
+    public void evictAll(Collection<?> keys) {
+        keys.forEach(cache::evict);
+    }
+
+    @Override
+    public SharedCacheEntry getWithTtl(Object key) {
+        Cache.ValueWrapper wrapper = cache.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            return null;
+        }
+        return new SharedCacheEntry(wrapper.get(), null);
+    }
+
+    @Override
+    public String tryAcquireLease(Object key, Duration leaseTime) {
+        return "local";
+    }
+
+    @Override
+    public void releaseLease(Object key, String token) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.rabinchuk.userservice.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stores {@link CacheTombstone}s as a {@code 0x00} marker byte followed by the UTF-8 message and
+ * everything else with the wrapped serializer. Neither the compact format nor JSON starts with {@code 0x00}.
+ */
+public class TombstoneRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte TOMBSTONE_MARKER = 0;
+
+    private final RedisSerializer<Object> delegate;
+
+    @SuppressWarnings("unchecked")
+    public TombstoneRedisSerializer(RedisSerializer<?> delegate) {
+        this.delegate = (RedisSerializer<Object>) delegate;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof CacheTombstone tombstone) {
+            byte[] message = tombstone.message() == null ? new byte[0] : tombstone.message().getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = new byte[message.length + 1];
+            bytes[0] = TOMBSTONE_MARKER;
+            System.arraycopy(message, 0, bytes, 1, message.length);
+            return bytes;
+        }
+        return delegate.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null && bytes.length > 0 && bytes[0] == TOMBSTONE_MARKER) {
+            return new CacheTombstone(new String(Arrays.copyOfRange(bytes, 1, bytes.length), StandardCharsets.UTF_8));
+        }
+        return delegate.deserialize(bytes);
+    }
+}
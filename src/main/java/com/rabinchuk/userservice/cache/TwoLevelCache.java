@@ -0,0 +1,426 @@
+package com.rabinchuk.userservice.cache;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps a bounded in-process copy of recently read entries in front of the shared Redis cache.
+ * Every write goes to Redis first and is then announced to the other nodes so they drop their local copy.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} are protected against stampedes: concurrent callers on one
+ * node share a single load, and across nodes only the holder of a short Redis lease runs the loader while
+ * the others poll Redis for its result. Entries close to expiry are refreshed in the background with a
+ * probability that grows as the TTL runs out (XFetch), so hot keys rarely expire under load.
+ * <p>
+ * When a loader throws {@link EntityNotFoundException} a {@link CacheTombstone} is cached instead, so repeated
+ * lookups of missing keys are answered with the same exception without reaching the database. Plain reads
+ * and {@link #getAll} treat tombstones as misses.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final double LOAD_TIME_SMOOTHING = 0.2;
+
+    private final Cache redisCache;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final SharedCacheAccessor sharedAccessor;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final TwoLevelCacheSettings settings;
+    private final Executor refreshExecutor;
+    private final Consumer<Object> accessListener;
+    private final TwoLevelCacheMetrics metrics;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final Set<String> inFlightRefreshes = ConcurrentHashMap.newKeySet();
+    private volatile double averageLoadNanos;
+
+    public TwoLevelCache(Cache redisCache,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> localCache,
+                         SharedCacheAccessor sharedAccessor,
+                         CacheInvalidationPublisher invalidationPublisher,
+                         TwoLevelCacheSettings settings,
+                         Executor refreshExecutor,
+                         Consumer<Object> accessListener,
+                         TwoLevelCacheMetrics metrics) {
+        this.redisCache = redisCache;
+        this.localCache = localCache;
+        this.sharedAccessor = sharedAccessor;
+        this.invalidationPublisher = invalidationPublisher;
+        this.settings = settings;
+        this.refreshExecutor = refreshExecutor;
+        this.accessListener = accessListener;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        recordAccess(key);
+        Object value = localCache.getIfPresent(localKey(key));
+        if (value != null) {
+            metrics.localHit();
+        } else {
+            metrics.localMiss();
+            ValueWrapper wrapper = redisCache.get(key);
+            value = wrapper == null ? null : wrapper.get();
+            if (value != null) {
+                metrics.sharedHit();
+                localCache.put(localKey(key), value);
+            } else {
+                metrics.sharedMiss();
+            }
+        }
+        return value == null || value instanceof CacheTombstone ? null : new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        recordAccess(key);
+        String localKey = localKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            metrics.localHit();
+        } else {
+            metrics.localMiss();
+            value = loadOnce(localKey, key, valueLoader);
+        }
+        if (value instanceof CacheTombstone tombstone) {
+            throw tombstone.toException();
+        }
+        return (T) value;
+    }
+
+    private Object loadOnce(String localKey, Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(localKey, load);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            load.complete(loadShared(key, valueLoader));
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+        } finally {
+            inFlightLoads.remove(localKey, load);
+        }
+        return join(load);
+    }
+
+    private Object loadShared(Object key, Callable<?> valueLoader) {
+        SharedCacheEntry entry = sharedAccessor.getWithTtl(key);
+        if (entry != null) {
+            metrics.sharedHit();
+            localCache.put(localKey(key), entry.value());
+            if (shouldRefreshEarly(entry.ttl())) {
+                refreshAsync(key, valueLoader);
+            }
+            return entry.value();
+        }
+        metrics.sharedMiss();
+
+        long deadline = System.nanoTime() + settings.leaseTime().toNanos();
+        while (true) {
+            String leaseToken = sharedAccessor.tryAcquireLease(key, settings.leaseTime());
+            if (leaseToken != null) {
+                try {
+                    return loadAndStore(key, valueLoader);
+                } finally {
+                    sharedAccessor.releaseLease(key, leaseToken);
+                }
+            }
+
+            if (System.nanoTime() - deadline >= 0) {
+                return loadAndStore(key, valueLoader);
+            }
+            sleep(settings.leasePollInterval());
+
+            entry = sharedAccessor.getWithTtl(key);
+            if (entry != null) {
+                localCache.put(localKey(key), entry.value());
+                return entry.value();
+            }
+        }
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            EntityNotFoundException notFound = findNotFound(e);
+            if (notFound == null) {
+                metrics.loadFailed(System.nanoTime() - start);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            loaded = new CacheTombstone(notFound.getMessage());
+        }
+        long loadNanos = System.nanoTime() - start;
+        recordLoadTime(loadNanos);
+        if (loaded instanceof CacheTombstone) {
+            metrics.loadedNotFound(loadNanos);
+        } else {
+            metrics.loaded(loadNanos);
+        }
+
+        if (loaded != null) {
+            redisCache.put(key, loaded);
+            localCache.put(localKey(key), loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * XFetch: refresh when {@code -delta * beta * ln(random)} reaches the remaining TTL, where delta is
+     * the observed load time. A slow loader or a short remaining TTL makes an early refresh more likely.
+     */
+    private boolean shouldRefreshEarly(Duration ttl) {
+        if (ttl == null || settings.refreshAheadBeta() <= 0 || averageLoadNanos <= 0) {
+            return false;
+        }
+        double gap = -averageLoadNanos * settings.refreshAheadBeta() * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return gap >= ttl.toNanos();
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        if (!inFlightRefreshes.add(localKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    String leaseToken = sharedAccessor.tryAcquireLease(key, settings.leaseTime());
+                    if (leaseToken == null) {
+                        return;
+                    }
+                    try {
+                        loadAndStore(key, valueLoader);
+                    } finally {
+                        sharedAccessor.releaseLease(key, leaseToken);
+                    }
+                } catch (RuntimeException ignored) {
+                    // The current value stays until it expires; the next regular miss reports the failure.
+                } finally {
+                    inFlightRefreshes.remove(localKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlightRefreshes.remove(localKey);
+        }
+    }
+
+    private void recordAccess(Object key) {
+        accessListener.accept(key);
+    }
+
+    private static EntityNotFoundException findNotFound(Throwable e) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            if (current instanceof EntityNotFoundException notFound) {
+                return notFound;
+            }
+        }
+        return null;
+    }
+
+    private void recordLoadTime(long nanos) {
+        double average = averageLoadNanos;
+        averageLoadNanos = average <= 0 ? nanos : average + LOAD_TIME_SMOOTHING * (nanos - average);
+    }
+
+    private static Object join(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a cache load", e);
+        }
+    }
+
+    /**
+     * Resolves every key from the local cache, then from Redis in one round trip, and hands only
+     * the remaining misses to {@code loader}. Loaded values are written back in one pipeline.
+     * Values are returned in the order of {@code keys}; duplicates and keys nobody could resolve are skipped.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> List<V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Set<K> distinctKeys = new LinkedHashSet<>(keys);
+        Map<K, V> found = new HashMap<>();
+        List<K> localMisses = new ArrayList<>();
+
+        for (K key : distinctKeys) {
+            Object value = localCache.getIfPresent(localKey(key));
+            if (value == null) {
+                metrics.localMiss();
+                localMisses.add(key);
+                continue;
+            }
+            metrics.localHit();
+            if (!(value instanceof CacheTombstone)) {
+                found.put(key, (V) value);
+            }
+        }
+
+        if (!localMisses.isEmpty()) {
+            Map<Object, Object> shared = sharedAccessor.getAll(localMisses);
+            Set<K> sharedMisses = new LinkedHashSet<>();
+            for (K key : localMisses) {
+                Object value = shared.get(key);
+                if (value == null) {
+                    metrics.sharedMiss();
+                    sharedMisses.add(key);
+                    continue;
+                }
+                metrics.sharedHit();
+                localCache.put(localKey(key), value);
+                if (!(value instanceof CacheTombstone)) {
+                    found.put(key, (V) value);
+                }
+            }
+
+            if (!sharedMisses.isEmpty()) {
+                long start = System.nanoTime();
+                Map<K, V> loaded = loader.apply(sharedMisses);
+                metrics.loaded(System.nanoTime() - start);
+                sharedAccessor.putAll(loaded);
+                loaded.forEach((key, value) -> {
+                    found.put(key, value);
+                    localCache.put(localKey(key), value);
+                });
+            }
+        }
+
+        List<V> result = new ArrayList<>(found.size());
+        for (K key : distinctKeys) {
+            V value = found.get(key);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        localCache.put(localKey(key), value);
+        invalidationPublisher.publishEvict(getName(), key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        localCache.invalidate(localKey(key));
+        metrics.evicted(1);
+        invalidationPublisher.publishEvict(getName(), key);
+    }
+
+    /**
+     * Evicts several keys with one shared-cache round trip and one invalidation message.
+     */
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        sharedAccessor.evictAll(keys);
+        localCache.invalidateAll(keys.stream().map(TwoLevelCache::localKey).toList());
+        metrics.evicted(keys.size());
+        invalidationPublisher.publishEvictAll(getName(), keys);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = redisCache.evictIfPresent(key);
+        localCache.invalidate(localKey(key));
+        metrics.evicted(1);
+        invalidationPublisher.publishEvict(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        metrics.evicted(1);
+        invalidationPublisher.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = redisCache.invalidate();
+        localCache.invalidateAll();
+        metrics.evicted(1);
+        invalidationPublisher.publishClear(getName());
+        return invalidated;
+    }
+
+    public void evictLocal(String key) {
+        localCache.invalidate(key);
+    }
+
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    public CacheStatistics statistics() {
+        return metrics.statistics(localCache.estimatedSize());
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
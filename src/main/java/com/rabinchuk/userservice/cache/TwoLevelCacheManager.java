@@ -0,0 +1,114 @@
+package com.rabinchuk.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+public class TwoLevelCacheManager implements CacheManager, DisposableBean {
+
+    private final CacheManager redisCacheManager;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final TwoLevelCacheSettings settings;
+    private final HotKeyTracker hotKeyTracker;
+    private final FrequencySketch frequencySketch;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TwoLevelCacheManager(CacheManager redisCacheManager,
+                                RedisConnectionFactory redisConnectionFactory,
+                                CacheInvalidationPublisher invalidationPublisher,
+                                TwoLevelCacheSettings settings,
+                                HotKeyTracker hotKeyTracker,
+                                FrequencySketch frequencySketch,
+                                MeterRegistry meterRegistry) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.invalidationPublisher = invalidationPublisher;
+        this.settings = settings;
+        this.hotKeyTracker = hotKeyTracker;
+        this.frequencySketch = frequencySketch;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return getTwoLevelCache(name);
+    }
+
+    public TwoLevelCache getTwoLevelCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    public void evictLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+    }
+
+    public void clearLocal(String cacheName) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+
+    public List<CacheStatistics> statistics() {
+        return getCacheNames().stream()
+                .map(this::getTwoLevelCache)
+                .map(TwoLevelCache::statistics)
+                .toList();
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        SharedCacheAccessor sharedAccessor = redisCache instanceof RedisCache cache
+                ? new RedisSharedCacheAccessor(cache, redisConnectionFactory)
+                : new SimpleSharedCacheAccessor(redisCache);
+
+        return new TwoLevelCache(redisCache, Caffeine.newBuilder()
+                .maximumSize(settings.localMaximumSize())
+                .expireAfterWrite(settings.localTtl())
+                .build(), sharedAccessor, invalidationPublisher, settings, refreshExecutor,
+                accessListener(name),
+                new TwoLevelCacheMetrics(name, meterRegistry));
+    }
+
+    private Consumer<Object> accessListener(String name) {
+        if (hotKeyTracker != null && hotKeyTracker.getCacheName().equals(name)) {
+            return key -> {
+                frequencySketch.increment(name, key);
+                hotKeyTracker.record(key);
+            };
+        }
+        return key -> frequencySketch.increment(name, key);
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,123 @@
+package com.rabinchuk.userservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of one {@link TwoLevelCache}, all tagged with the cache name:
+ * <ul>
+ *     <li>{@code cache.requests} - lookups by {@code level} (local, shared) and {@code result} (hit, miss)</li>
+ *     <li>{@code cache.loads} - loader time by {@code result} (success, not_found, failure)</li>
+ *     <li>{@code cache.evictions} - keys evicted or caches cleared by this node</li>
+ *     <li>{@code cache.value.size} - serialized size of values written to Redis, see {@link MeteredRedisSerializer}</li>
+ * </ul>
+ */
+public class TwoLevelCacheMetrics {
+
+    public static final String VALUE_SIZE_METER = "cache.value.size";
+
+    private final String cacheName;
+    private final MeterRegistry meterRegistry;
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Counter evictions;
+    private final Timer successfulLoads;
+    private final Timer notFoundLoads;
+    private final Timer failedLoads;
+
+    public TwoLevelCacheMetrics(String cacheName, MeterRegistry meterRegistry) {
+        this.cacheName = cacheName;
+        this.meterRegistry = meterRegistry;
+        this.localHits = requests("local", "hit");
+        this.localMisses = requests("local", "miss");
+        this.sharedHits = requests("shared", "hit");
+        this.sharedMisses = requests("shared", "miss");
+        this.evictions = Counter.builder("cache.evictions")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        this.successfulLoads = loads("success");
+        this.notFoundLoads = loads("not_found");
+        this.failedLoads = loads("failure");
+    }
+
+    public static DistributionSummary valueSize(String cacheName, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder(VALUE_SIZE_METER)
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    void localHit() {
+        localHits.increment();
+    }
+
+    void localMiss() {
+        localMisses.increment();
+    }
+
+    void sharedHit() {
+        sharedHits.increment();
+    }
+
+    void sharedMiss() {
+        sharedMisses.increment();
+    }
+
+    void evicted(int count) {
+        evictions.increment(count);
+    }
+
+    void loaded(long nanos) {
+        successfulLoads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void loadedNotFound(long nanos) {
+        notFoundLoads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void loadFailed(long nanos) {
+        failedLoads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public CacheStatistics statistics(long localSize) {
+        long requests = (long) (localHits.count() + localMisses.count());
+        long hits = (long) (localHits.count() + sharedHits.count());
+        DistributionSummary valueSize = meterRegistry.find(VALUE_SIZE_METER).tag("cache", cacheName).summary();
+
+        return new CacheStatistics(
+                cacheName,
+                requests,
+                (long) localHits.count(),
+                (long) sharedHits.count(),
+                (long) sharedMisses.count(),
+                requests == 0 ? 0 : (double) hits / requests,
+                successfulLoads.count() + notFoundLoads.count() + failedLoads.count(),
+                successfulLoads.mean(TimeUnit.MILLISECONDS),
+                successfulLoads.max(TimeUnit.MILLISECONDS),
+                (long) evictions.count(),
+                localSize,
+                valueSize == null ? 0 : valueSize.mean()
+        );
+    }
+
+    private Counter requests(String level, String result) {
+        return Counter.builder("cache.requests")
+                .tag("cache", cacheName)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Timer loads(String result) {
+        return Timer.builder("cache.loads")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.rabinchuk.userservice.cache;
+
+import java.time.Duration;
+
+/**
+ * Tuning of the two-level cache.
+ *
+ * @param localMaximumSize  entries kept in each in-process cache
+ * @param localTtl          how long an in-process copy may be served without asking Redis again
+ * @param leaseTime         how long one node may hold the right to load a missing key before others load it themselves
+ * @param leasePollInterval how often nodes without the lease look for the loaded value in Redis
+ * @param refreshAheadBeta  eagerness of probabilistic early refresh; {@code 0} disables it, {@code 1} is the usual setting
+ */
+public record TwoLevelCacheSettings(long localMaximumSize,
+                                    Duration localTtl,
+                                    Duration leaseTime,
+                                    Duration leasePollInterval,
+                                    double refreshAheadBeta) {
+}
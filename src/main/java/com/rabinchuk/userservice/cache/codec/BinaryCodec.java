@@ -0,0 +1,14 @@
+package com.rabinchuk.userservice.cache.codec;
+
+import java.io.IOException;
+
+/**
+ * Field-by-field binary encoding of one cached type. Implementations must only ever append fields,
+ * bumping {@link CompactRedisSerializer#FORMAT_VERSION} when an existing layout changes.
+ */
+public interface BinaryCodec<T> {
+
+    void write(T value, CompactDataOutput out) throws IOException;
+
+    T read(CompactDataInput in) throws IOException;
+}
@@ -0,0 +1,64 @@
+package com.rabinchuk.userservice.cache.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+public class CompactDataInput {
+
+    private final byte[] buffer;
+    private int position;
+
+    public CompactDataInput(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public int readByte() throws IOException {
+        if (position >= buffer.length) {
+            throw new EOFException();
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() throws IOException {
+        long zigZag = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Malformed varint");
+            }
+            b = readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    public Long readNullableLong() throws IOException {
+        return readBoolean() ? readVarLong() : null;
+    }
+
+    public String readNullableString() throws IOException {
+        if (!readBoolean()) {
+            return null;
+        }
+        int length = Math.toIntExact(readVarLong());
+        if (length < 0 || position + length > buffer.length) {
+            throw new EOFException();
+        }
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public LocalDate readNullableDate() throws IOException {
+        return readBoolean() ? LocalDate.ofEpochDay(readVarLong()) : null;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.rabinchuk.userservice.cache.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Varint-based writer: small ids, lengths and dates take one or two bytes instead of eight.
+ */
+public class CompactDataOutput {
+
+    private final ByteArrayOutputStream out;
+
+    public CompactDataOutput(int initialCapacity) {
+        this.out = new ByteArrayOutputStream(initialCapacity);
+    }
+
+    public void writeByte(int value) {
+        out.write(value);
+    }
+
+    public void writeVarLong(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.write((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.write((int) zigZag);
+    }
+
+    public void writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(value);
+        }
+    }
+
+    public void writeNullableString(String value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    public void writeNullableDate(LocalDate value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(value.toEpochDay());
+        }
+    }
+
+    public void writeBoolean(boolean value) {
+        out.write(value ? 1 : 0);
+    }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+}
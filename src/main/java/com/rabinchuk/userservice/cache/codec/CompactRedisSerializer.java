@@ -0,0 +1,114 @@
+package com.rabinchuk.userservice.cache.codec;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary cache value format: {@code [version][flags][payload]}. The payload is deflated when the
+ * encoded value is larger than {@code compressionThreshold} bytes. Values written with another
+ * format version, including plain JSON from before this serializer, read back as cache misses.
+ */
+public class CompactRedisSerializer<T> implements RedisSerializer<T> {
+
+    public static final byte FORMAT_VERSION = 2;
+
+    private static final int HEADER_LENGTH = 2;
+    private static final byte FLAG_COMPRESSED = 1;
+
+    private final BinaryCodec<T> codec;
+    private final int compressionThreshold;
+
+    public CompactRedisSerializer(BinaryCodec<T> codec, int compressionThreshold) {
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        CompactDataOutput out = new CompactDataOutput(256);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(0);
+        try {
+            codec.write(value, out);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+
+        byte[] encoded = out.toByteArray();
+        if (encoded.length - HEADER_LENGTH <= compressionThreshold) {
+            return encoded;
+        }
+        return compress(encoded);
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH || bytes[0] != FORMAT_VERSION) {
+            return null;
+        }
+
+        byte[] payload = bytes;
+        if ((bytes[1] & FLAG_COMPRESSED) != 0) {
+            payload = decompress(bytes);
+        }
+
+        try {
+            return codec.read(new CompactDataInput(payload, HEADER_LENGTH));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot deserialize cached value", e);
+        }
+    }
+
+    private byte[] compress(byte[] encoded) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(encoded, HEADER_LENGTH, encoded.length - HEADER_LENGTH);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(encoded.length / 2 + HEADER_LENGTH);
+            out.write(FORMAT_VERSION);
+            out.write(FLAG_COMPRESSED);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            out.write(FORMAT_VERSION);
+            out.write(0);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated compressed cache value");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupted compressed cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.rabinchuk.userservice.cache.codec;
+
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class DtoCodecs {
+
+    public static final BinaryCodec<Long> LONG = new BinaryCodec<>() {
+        @Override
+        public void write(Long value, CompactDataOutput out) {
+            out.writeNullableLong(value);
+        }
+
+        @Override
+        public Long read(CompactDataInput in) throws IOException {
+            return in.readNullableLong();
+        }
+    };
+
+    public static final BinaryCodec<CardInfoResponseDto> CARD_INFO = new BinaryCodec<>() {
+        @Override
+        public void write(CardInfoResponseDto value, CompactDataOutput out) {
+            out.writeNullableLong(value.id());
+            out.writeNullableLong(value.userId());
+            out.writeNullableString(value.number());
+            out.writeNullableString(value.holder());
+            out.writeNullableDate(value.expirationDate());
+            out.writeNullableLong(value.version());
+        }
+
+        @Override
+        public CardInfoResponseDto read(CompactDataInput in) throws IOException {
+            return CardInfoResponseDto.builder()
+                    .id(in.readNullableLong())
+                    .userId(in.readNullableLong())
+                    .number(in.readNullableString())
+                    .holder(in.readNullableString())
+                    .expirationDate(in.readNullableDate())
+                    .version(in.readNullableLong())
+                    .build();
+        }
+    };
+
+    public static final BinaryCodec<List<CardInfoResponseDto>> CARD_INFO_LIST = listOf(CARD_INFO);
+
+    public static final BinaryCodec<UserResponseDto> USER = new BinaryCodec<>() {
+        @Override
+        public void write(UserResponseDto value, CompactDataOutput out) throws IOException {
+            out.writeNullableLong(value.id());
+            out.writeNullableString(value.name());
+            out.writeNullableString(value.surname());
+            out.writeNullableDate(value.birthDate());
+            out.writeNullableString(value.email());
+            out.writeNullableLong(value.version());
+            CARD_INFO_LIST.write(value.cards(), out);
+        }
+
+        @Override
+        public UserResponseDto read(CompactDataInput in) throws IOException {
+            return UserResponseDto.builder()
+                    .id(in.readNullableLong())
+                    .name(in.readNullableString())
+                    .surname(in.readNullableString())
+                    .birthDate(in.readNullableDate())
+                    .email(in.readNullableString())
+                    .version(in.readNullableLong())
+                    .cards(CARD_INFO_LIST.read(in))
+                    .build();
+        }
+    };
+
+    private DtoCodecs() {
+    }
+
+    public static <T> BinaryCodec<List<T>> listOf(BinaryCodec<T> elementCodec) {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(List<T> value, CompactDataOutput out) throws IOException {
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    out.writeVarLong(value.size());
+                    for (T element : value) {
+                        elementCodec.write(element, out);
+                    }
+                }
+            }
+
+            @Override
+            public List<T> read(CompactDataInput in) throws IOException {
+                if (!in.readBoolean()) {
+                    return null;
+                }
+                int size = Math.toIntExact(in.readVarLong());
+                List<T> value = new ArrayList<>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    value.add(elementCodec.read(in));
+                }
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.rabinchuk.userservice.cardimport;
+
+import org.springframework.http.MediaType;
+
+public enum CardImportFormat {
+
+    /**
+     * Comma-separated {@code user_id,number,holder,expiration_date} with a header line.
+     */
+    CSV(new MediaType("text", "csv")),
+
+    /**
+     * One {@code {"userId", "number", "holder", "expirationDate"}} object per line.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    CardImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static CardImportFormat fromMediaType(MediaType mediaType) {
+        for (CardImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new InvalidImportException("Unsupported import format: " + mediaType);
+    }
+}
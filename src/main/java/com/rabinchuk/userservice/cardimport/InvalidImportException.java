@@ -0,0 +1,8 @@
+package com.rabinchuk.userservice.cardimport;
+
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,77 @@
+package com.rabinchuk.userservice.configuration;
+
+import com.rabinchuk.userservice.batching.BatchLoader;
+import com.rabinchuk.userservice.batching.BatchLoaderSettings;
+import com.rabinchuk.userservice.datasource.ReadYourWrites;
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import com.rabinchuk.userservice.repository.CardInfoRepository;
+import com.rabinchuk.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch loaders behind the single-id lookups of users and cards. Lookups inside a transaction or from a request
+ * pinned to the primary bypass the batch, since it runs on another thread and could not see their writes.
+ * Batches run in a read-only transaction of their own, so that with read replicas they are served by a replica.
+ */
+@Configuration
+public class BatchLoaderConfiguration {
+
+    @Bean
+    public BatchLoaderSettings batchLoaderSettings(@Value("${app.batch-loader.window:2ms}") Duration window,
+                                                   @Value("${app.batch-loader.max-batch-size:100}") int maxBatchSize) {
+        return new BatchLoaderSettings(window, maxBatchSize);
+    }
+
+    @Bean
+    public BatchLoader<Long, UserResponseDto> userBatchLoader(UserRepository userRepository,
+                                                              BatchLoaderSettings batchLoaderSettings,
+                                                              ObjectProvider<ReadYourWrites> readYourWrites,
+                                                              PlatformTransactionManager transactionManager,
+                                                              MeterRegistry meterRegistry) {
+        return new BatchLoader<>("users", readOnly(transactionManager, ids -> userRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserResponseDto::id, Function.identity()))),
+                batchLoaderSettings, bypass(readYourWrites), meterRegistry);
+    }
+
+    @Bean
+    public BatchLoader<Long, CardInfoResponseDto> cardBatchLoader(CardInfoRepository cardInfoRepository,
+                                                                  BatchLoaderSettings batchLoaderSettings,
+                                                                  ObjectProvider<ReadYourWrites> readYourWrites,
+                                                                  PlatformTransactionManager transactionManager,
+                                                                  MeterRegistry meterRegistry) {
+        return new BatchLoader<>("cards", readOnly(transactionManager, ids -> cardInfoRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(CardInfoResponseDto::id, Function.identity()))),
+                batchLoaderSettings, bypass(readYourWrites), meterRegistry);
+    }
+
+    /**
+     * Bypassed lookups run in the caller's transaction, if any, which the template joins.
+     */
+    private <V> Function<Set<Long>, Map<Long, V>> readOnly(PlatformTransactionManager transactionManager,
+                                                           Function<Set<Long>, Map<Long, V>> batchFunction) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return ids -> transactionTemplate.execute(status -> batchFunction.apply(ids));
+    }
+
+    private BooleanSupplier bypass(ObjectProvider<ReadYourWrites> readYourWrites) {
+        ReadYourWrites pins = readYourWrites.getIfAvailable();
+        return () -> TransactionSynchronizationManager.isActualTransactionActive()
+                || (pins != null && pins.isPinned());
+    }
+}
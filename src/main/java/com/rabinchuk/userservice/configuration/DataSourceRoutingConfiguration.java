@@ -0,0 +1,94 @@
+package com.rabinchuk.userservice.configuration;
+
+import com.rabinchuk.userservice.datasource.ReadYourWrites;
+import com.rabinchuk.userservice.datasource.ReadYourWritesFilter;
+import com.rabinchuk.userservice.datasource.ReplicaLagMonitor;
+import com.rabinchuk.userservice.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to streaming replicas. Active only when {@code app.datasource.replicas.urls}
+ * lists at least one replica; replicas use the credentials of the primary.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class DataSourceRoutingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${app.datasource.replicas.urls}") String[] urls,
+                                               @Value("${app.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                                               @Value("${app.datasource.replicas.max-lag:2s}") Duration maxLag,
+                                               @Value("${app.datasource.replicas.lag-query-timeout:1s}") Duration lagQueryTimeout) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls[i].trim())
+                    .build();
+            replica.setPoolName(name);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replicas.put(name, replica);
+        }
+        return new ReplicaLagMonitor(replicas, maxLag, lagQueryTimeout, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaLagMonitor replicaLagMonitor,
+                                         @Value("${app.datasource.replicas.pin-secret:${app.jwt.secret}}") String pinSecret,
+                                         @Value("${app.datasource.replicas.pin-duration:5s}") Duration pinDuration,
+                                         @Value("${app.cache.re-eviction-delay:5s}") Duration reEvictionDelay) {
+        if (pinDuration.compareTo(replicaLagMonitor.getMaxLag()) <= 0) {
+            log.warn("Primary pin of {} does not outlast the allowed replica lag of {}", pinDuration, replicaLagMonitor.getMaxLag());
+        }
+        if (reEvictionDelay.compareTo(replicaLagMonitor.getMaxLag()) <= 0) {
+            throw new IllegalStateException("app.cache.re-eviction-delay of " + reEvictionDelay
+                    + " must outlast the allowed replica lag of " + replicaLagMonitor.getMaxLag()
+                    + ", otherwise replica reads may cache state from before a write");
+        }
+        return new ReadYourWrites(pinSecret, pinDuration, Clock.systemUTC());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWrites readYourWrites) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWrites));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWrites readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor, readYourWrites));
+    }
+}
@@ -1,34 +1,171 @@
 package com.rabinchuk.userservice.configuration;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabinchuk.userservice.cache.AdaptiveTtlFunction;
+import com.rabinchuk.userservice.cache.CacheInvalidationListener;
+import com.rabinchuk.userservice.cache.CacheInvalidationPublisher;
+import com.rabinchuk.userservice.cache.CacheNames;
+import com.rabinchuk.userservice.cache.CacheTombstone;
+import com.rabinchuk.userservice.cache.FrequencySketch;
+import com.rabinchuk.userservice.cache.HotKeyTracker;
+import com.rabinchuk.userservice.cache.MeteredRedisSerializer;
+import com.rabinchuk.userservice.cache.TombstoneRedisSerializer;
+import com.rabinchuk.userservice.cache.TwoLevelCacheManager;
+import com.rabinchuk.userservice.cache.TwoLevelCacheMetrics;
+import com.rabinchuk.userservice.cache.TwoLevelCacheSettings;
+import com.rabinchuk.userservice.cache.codec.BinaryCodec;
+import com.rabinchuk.userservice.cache.codec.CompactRedisSerializer;
+import com.rabinchuk.userservice.cache.codec.DtoCodecs;
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
 import com.rabinchuk.userservice.dto.UserResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class RedisConfiguration {
 
-    @Bean
-    public RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper) {
-        Jackson2JsonRedisSerializer<UserResponseDto> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, UserResponseDto.class);
+    @Value("${app.cache.ttl.user:6h}")
+    private Duration userCacheTtl;
+
+    @Value("${app.cache.ttl.card:6h}")
+    private Duration cardCacheTtl;
+
+    @Value("${app.cache.ttl.user-cards:6h}")
+    private Duration userCardsCacheTtl;
+
+    @Value("${app.cache.ttl.user-id:1h}")
+    private Duration userIdCacheTtl;
+
+    @Value("${app.cache.ttl.not-found:30s}")
+    private Duration notFoundTtl;
+
+    @Value("${app.cache.adaptive-ttl.enabled:true}")
+    private boolean adaptiveTtlEnabled;
+
+    @Value("${app.cache.adaptive-ttl.min:10m}")
+    private Duration adaptiveTtlMin;
+
+    @Value("${app.cache.adaptive-ttl.max:24h}")
+    private Duration adaptiveTtlMax;
 
-        RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
+    @Value("${app.cache.adaptive-ttl.pivot-frequency:8}")
+    private int adaptiveTtlPivotFrequency;
+
+    @Value("${app.cache.codec:binary}")
+    private String cacheCodec;
+
+    @Value("${app.cache.compression-threshold:512}")
+    private int compressionThreshold;
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                             ObjectMapper objectMapper,
+                                             CacheInvalidationPublisher cacheInvalidationPublisher,
+                                             TwoLevelCacheSettings twoLevelCacheSettings,
+                                             HotKeyTracker userHotKeyTracker,
+                                             FrequencySketch cacheFrequencySketch,
+                                             MeterRegistry meterRegistry) {
+        RedisCacheConfiguration defaultConfiguration = RedisCacheConfiguration.defaultCacheConfig()
                 .disableCachingNullValues()
-                .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(serializer))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()));
 
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(redisCacheConfiguration)
+        JavaType cardListType = objectMapper.getTypeFactory().constructCollectionType(List.class, CardInfoResponseDto.class);
+
+        Map<String, RedisCacheConfiguration> cacheConfigurations = Map.of(
+                CacheNames.USER_CACHE, cacheConfiguration(defaultConfiguration, meterRegistry, cacheFrequencySketch, CacheNames.USER_CACHE, userCacheTtl,
+                        valueSerializer(objectMapper, objectMapper.constructType(UserResponseDto.class), DtoCodecs.USER)),
+                CacheNames.CARD_CACHE, cacheConfiguration(defaultConfiguration, meterRegistry, cacheFrequencySketch, CacheNames.CARD_CACHE, cardCacheTtl,
+                        valueSerializer(objectMapper, objectMapper.constructType(CardInfoResponseDto.class), DtoCodecs.CARD_INFO)),
+                CacheNames.USER_CARDS_CACHE, cacheConfiguration(defaultConfiguration, meterRegistry, cacheFrequencySketch, CacheNames.USER_CARDS_CACHE, userCardsCacheTtl,
+                        valueSerializer(objectMapper, cardListType, DtoCodecs.CARD_INFO_LIST)),
+                CacheNames.USER_ID_CACHE, cacheConfiguration(defaultConfiguration, meterRegistry, cacheFrequencySketch, CacheNames.USER_ID_CACHE, userIdCacheTtl,
+                        valueSerializer(objectMapper, objectMapper.constructType(Long.class), DtoCodecs.LONG))
+        );
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(defaultConfiguration)
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .disableCreateOnMissingCache()
                 .build();
+        redisCacheManager.initializeCaches();
+
+        return new TwoLevelCacheManager(redisCacheManager, redisConnectionFactory, cacheInvalidationPublisher, twoLevelCacheSettings,
+                userHotKeyTracker, cacheFrequencySketch, meterRegistry);
+    }
+
+    @Bean
+    public FrequencySketch cacheFrequencySketch(@Value("${app.cache.adaptive-ttl.sketch-width:65536}") int width) {
+        return new FrequencySketch(width);
+    }
+
+    @Bean
+    public HotKeyTracker userHotKeyTracker(StringRedisTemplate stringRedisTemplate,
+                                           @Value("${app.cache.hot-keys.snapshot-key:user-service:hot-keys:users}") String snapshotKey,
+                                           @Value("${app.cache.hot-keys.snapshot-size:5000}") int snapshotSize,
+                                           @Value("${app.cache.hot-keys.max-tracked:50000}") int maxTrackedKeys,
+                                           @Value("${app.cache.hot-keys.decay:0.5}") double decay) {
+        return new HotKeyTracker(CacheNames.USER_CACHE, stringRedisTemplate, snapshotKey, snapshotSize, maxTrackedKeys, decay);
+    }
+
+    @Bean
+    public TwoLevelCacheSettings twoLevelCacheSettings(@Value("${app.cache.local.maximum-size:10000}") long localMaximumSize,
+                                                       @Value("${app.cache.local.ttl:30s}") Duration localTtl,
+                                                       @Value("${app.cache.lease.time:5s}") Duration leaseTime,
+                                                       @Value("${app.cache.lease.poll-interval:50ms}") Duration leasePollInterval,
+                                                       @Value("${app.cache.refresh-ahead-beta:1.0}") double refreshAheadBeta) {
+        return new TwoLevelCacheSettings(localMaximumSize, localTtl, leaseTime, leasePollInterval, refreshAheadBeta);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                            TwoLevelCacheManager cacheManager,
+                                                                            CacheInvalidationPublisher cacheInvalidationPublisher,
+                                                                            ObjectMapper objectMapper) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(new CacheInvalidationListener(cacheManager, cacheInvalidationPublisher, objectMapper),
+                new ChannelTopic(cacheInvalidationPublisher.getChannel()));
+        return container;
+    }
+
+    private RedisSerializer<?> valueSerializer(ObjectMapper objectMapper, JavaType jsonType, BinaryCodec<?> binaryCodec) {
+        if ("json".equalsIgnoreCase(cacheCodec)) {
+            return new Jackson2JsonRedisSerializer<>(objectMapper, jsonType);
+        }
+        return new CompactRedisSerializer<>(binaryCodec, compressionThreshold);
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(RedisCacheConfiguration defaultConfiguration,
+                                                       MeterRegistry meterRegistry,
+                                                       FrequencySketch frequencySketch,
+                                                       String cacheName,
+                                                       Duration ttl,
+                                                       RedisSerializer<?> serializer) {
+        RedisSerializer<?> valueSerializer = new MeteredRedisSerializer(new TombstoneRedisSerializer(serializer),
+                TwoLevelCacheMetrics.valueSize(cacheName, meterRegistry));
+        RedisCacheWriter.TtlFunction entryTtl = adaptiveTtlEnabled
+                ? new AdaptiveTtlFunction(cacheName, frequencySketch, ttl, adaptiveTtlMin, adaptiveTtlMax, adaptiveTtlPivotFrequency)
+                : RedisCacheWriter.TtlFunction.just(ttl);
+        return defaultConfiguration
+                .entryTtl((key, value) -> value instanceof CacheTombstone ? notFoundTtl : entryTtl.getTimeToLive(key, value))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
     }
 }
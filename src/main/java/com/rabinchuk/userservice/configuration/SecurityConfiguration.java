@@ -4,6 +4,7 @@ import com.rabinchuk.userservice.security.CustomAccessDenierHandler;
 import com.rabinchuk.userservice.security.DelegatedAuthEntryPoint;
 import com.rabinchuk.userservice.security.InternalApiAuthenticationFilter;
 import com.rabinchuk.userservice.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,7 +40,9 @@ public class SecurityConfiguration {
                         .accessDeniedHandler(customAccessDenierHandler)
                 )
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/actuator/**").permitAll()
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -1,13 +1,22 @@
 package com.rabinchuk.userservice.controller;
 
+import com.rabinchuk.userservice.cardimport.CardImportFormat;
 import com.rabinchuk.userservice.controller.api.CardInfoApi;
+import com.rabinchuk.userservice.dto.BulkLookupRequestDto;
+import com.rabinchuk.userservice.dto.CardImportReportDto;
 import com.rabinchuk.userservice.dto.CardInfoRequestDto;
 import com.rabinchuk.userservice.dto.CardInfoResponseDto;
 import com.rabinchuk.userservice.dto.CardInfoWithUserIdRequestDto;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
+import com.rabinchuk.userservice.service.BulkLookupService;
+import com.rabinchuk.userservice.service.CardImportService;
 import com.rabinchuk.userservice.service.CardInfoService;
+import com.rabinchuk.userservice.versioning.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,10 +25,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -28,17 +41,22 @@ import java.util.List;
 public class CardInfoController implements CardInfoApi {
 
     private final CardInfoService cardInfoService;
+    private final CardImportService cardImportService;
+    private final BulkLookupService bulkLookupService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<CardInfoResponseDto>> getAll() {
-        return ResponseEntity.ok(cardInfoService.getAll());
+    public ResponseEntity<CursorPageResponseDto<CardInfoResponseDto>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.pagination.default-size:20}") int size) {
+        return ResponseEntity.ok(cardInfoService.getAll(cursor, size));
     }
 
     @GetMapping("/getById/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @cardInfoServiceImpl.getById(#id).userId() == @userServiceImpl.getUserByEmail(authentication.name).id()")
+    @PreAuthorize("hasRole('ADMIN') or @ownershipService.isCardOwner(#id, authentication)")
     public ResponseEntity<CardInfoResponseDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(cardInfoService.getById(id));
+        CardInfoResponseDto card = cardInfoService.getById(id);
+        return ResponseEntity.ok().eTag(ETags.of(card.version())).body(card);
     }
 
     @GetMapping(value = "/getByIds", params = "ids")
@@ -47,6 +65,14 @@ public class CardInfoController implements CardInfoApi {
         return ResponseEntity.ok(cardInfoService.getByIds(ids));
     }
 
+    @PostMapping("/getByIds")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getByIdsInBody(@Valid @RequestBody BulkLookupRequestDto request) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> bulkLookupService.writeCards(request.ids(), out));
+    }
+
     @PostMapping()
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<CardInfoResponseDto> create(@Valid @RequestBody CardInfoWithUserIdRequestDto u) {
@@ -54,28 +80,39 @@ public class CardInfoController implements CardInfoApi {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @cardInfoServiceImpl.getById(#id).userId().equals(@userServiceImpl.getUserByEmail(authentication.name).id())")
-    public ResponseEntity<CardInfoResponseDto> updateById(@PathVariable Long id, @Valid @RequestBody CardInfoWithUserIdRequestDto u) {
-        return ResponseEntity.ok(cardInfoService.updateById(id, u));
+    @PreAuthorize("hasRole('ADMIN') or @ownershipService.isCardOwner(#id, authentication)")
+    public ResponseEntity<CardInfoResponseDto> updateById(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                          @Valid @RequestBody CardInfoWithUserIdRequestDto u) {
+        CardInfoResponseDto card = cardInfoService.updateById(id, u, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(card.version())).body(card);
     }
 
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @cardInfoServiceImpl.getById(#id).userId().equals(@userServiceImpl.getUserByEmail(authentication.name).id())")
+    @PreAuthorize("hasRole('ADMIN') or @ownershipService.isCardOwner(#id, authentication)")
     public ResponseEntity<Void> deleteById(@PathVariable Long id) {
         cardInfoService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/addCardInfoToUser/{userId}")
-    @PreAuthorize("hasRole('ADMIN') or #userId == @userServiceImpl.getUserByEmail(authentication.name).id()")
+    @PreAuthorize("hasRole('ADMIN') or @ownershipService.isSelf(#userId, authentication)")
     public ResponseEntity<CardInfoResponseDto> addCardInfoToUser(@PathVariable("userId") Long userId, @Valid @RequestBody CardInfoRequestDto cardInfoRequestDto) {
         return new ResponseEntity<>(cardInfoService.addCardInfoToUser(userId, cardInfoRequestDto), HttpStatus.CREATED);
     }
 
     @GetMapping("/getCardInfoByUserId/{userId}")
-    @PreAuthorize("hasRole('ADMIN') or #userId == @userServiceImpl.getUserByEmail(authentication.name).id()")
+    @PreAuthorize("hasRole('ADMIN') or @ownershipService.isSelf(#userId, authentication)")
     public ResponseEntity<List<CardInfoResponseDto>> getCardInfoByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(cardInfoService.getCardInfoByUserId(userId));
+        List<CardInfoResponseDto> cards = cardInfoService.getCardInfoByUserId(userId);
+        return ResponseEntity.ok().eTag(ETags.ofCards(cards)).body(cards);
+    }
+
+    @PostMapping(value = "/import", consumes = {CardImportFormat.CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CardImportReportDto> importCards(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           InputStream body) throws IOException {
+        return ResponseEntity.ok(cardImportService.importCards(body, CardImportFormat.fromMediaType(contentType)));
     }
 
 }
@@ -1,12 +1,24 @@
 package com.rabinchuk.userservice.controller;
 
 import com.rabinchuk.userservice.controller.api.UserApi;
+import com.rabinchuk.userservice.dto.BulkItemResultDto;
+import com.rabinchuk.userservice.dto.BulkLookupRequestDto;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
+import com.rabinchuk.userservice.dto.UserBulkCreateRequestDto;
+import com.rabinchuk.userservice.dto.UserBulkDeleteRequestDto;
+import com.rabinchuk.userservice.dto.UserBulkUpdateRequestDto;
 import com.rabinchuk.userservice.dto.UserRequestDto;
 import com.rabinchuk.userservice.dto.UserResponseDto;
+import com.rabinchuk.userservice.service.BulkLookupService;
+import com.rabinchuk.userservice.service.UserBulkService;
+import com.rabinchuk.userservice.service.UserExportService;
 import com.rabinchuk.userservice.service.UserService;
+import com.rabinchuk.userservice.versioning.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,9 +27,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -27,17 +41,32 @@ import java.util.List;
 public class UserController implements UserApi {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserBulkService userBulkService;
+    private final BulkLookupService bulkLookupService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponseDto>> getAll() {
-        return ResponseEntity.ok(userService.getAll());
+    public ResponseEntity<CursorPageResponseDto<UserResponseDto>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.pagination.default-size:20}") int size) {
+        return ResponseEntity.ok(userService.getAll(cursor, size));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponseDto<UserResponseDto>> search(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.pagination.default-size:20}") int size) {
+        return ResponseEntity.ok(userService.search(query, cursor, size));
     }
 
     @GetMapping("/getById/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @userServiceImpl.getById(#id).email() == authentication.name")
+    @PreAuthorize("hasRole('ADMIN') or @ownershipService.isSelf(#id, authentication)")
     public ResponseEntity<UserResponseDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getById(id));
+        UserResponseDto user = userService.getById(id);
+        return ResponseEntity.ok().eTag(ETags.of(user.version())).body(user);
     }
 
     @GetMapping(value = "/getByIds", params = "ids")
@@ -46,6 +75,14 @@ public class UserController implements UserApi {
         return ResponseEntity.ok(userService.getByIds(ids));
     }
 
+    @PostMapping("/getByIds")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('INTERNAL_SERVICE')")
+    public ResponseEntity<StreamingResponseBody> getByIdsInBody(@Valid @RequestBody BulkLookupRequestDto request) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> bulkLookupService.writeUsers(request.ids(), out));
+    }
+
     @PostMapping()
     @PreAuthorize("hasRole('ADMIN') or hasRole('INTERNAL_SERVICE')")
     public ResponseEntity<UserResponseDto> create(@Valid @RequestBody UserRequestDto u) {
@@ -53,9 +90,30 @@ public class UserController implements UserApi {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @userServiceImpl.getById(#id).email() == authentication.name")
-    public ResponseEntity<UserResponseDto> updateById(@PathVariable("id") Long id, @Valid @RequestBody UserRequestDto u) {
-        return ResponseEntity.ok(userService.updateById(id, u));
+    @PreAuthorize("hasRole('ADMIN') or @ownershipService.isSelf(#id, authentication)")
+    public ResponseEntity<UserResponseDto> updateById(@PathVariable("id") Long id,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                      @Valid @RequestBody UserRequestDto u) {
+        UserResponseDto user = userService.updateById(id, u, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(user.version())).body(user);
+    }
+
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('INTERNAL_SERVICE')")
+    public ResponseEntity<List<BulkItemResultDto>> createAll(@Valid @RequestBody UserBulkCreateRequestDto request) {
+        return ResponseEntity.ok(userBulkService.createAll(request.users()));
+    }
+
+    @PutMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('INTERNAL_SERVICE')")
+    public ResponseEntity<List<BulkItemResultDto>> updateAll(@Valid @RequestBody UserBulkUpdateRequestDto request) {
+        return ResponseEntity.ok(userBulkService.updateAll(request.users()));
+    }
+
+    @PostMapping("/bulk/delete")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('INTERNAL_SERVICE')")
+    public ResponseEntity<List<BulkItemResultDto>> deleteAll(@Valid @RequestBody UserBulkDeleteRequestDto request) {
+        return ResponseEntity.ok(userBulkService.deleteAll(request.ids()));
     }
 
     @DeleteMapping("/{id}")
@@ -71,4 +129,12 @@ public class UserController implements UserApi {
         return ResponseEntity.ok(userService.getUserByEmail(email));
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userExportService::exportUsers);
+    }
+
 }
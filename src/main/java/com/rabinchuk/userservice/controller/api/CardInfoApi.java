@@ -1,8 +1,11 @@
 package com.rabinchuk.userservice.controller.api;
 
+import com.rabinchuk.userservice.dto.BulkLookupRequestDto;
+import com.rabinchuk.userservice.dto.CardImportReportDto;
 import com.rabinchuk.userservice.dto.CardInfoRequestDto;
 import com.rabinchuk.userservice.dto.CardInfoResponseDto;
 import com.rabinchuk.userservice.dto.CardInfoWithUserIdRequestDto;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
 import com.rabinchuk.userservice.dto.ErrorResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,24 +15,38 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Tag(name = "Card Management", description = "APIs for managing user payment cards")
 public interface CardInfoApi {
 
-    @Operation(summary = "Get all cards", description = "Returns a list of all cards in the system.")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of cards")
-    ResponseEntity<List<CardInfoResponseDto>> getAll();
+    @Operation(summary = "Get all cards", description = "Returns one page of cards ordered by id. Pass the returned nextCursor to get the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of cards"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<CursorPageResponseDto<CardInfoResponseDto>> getAll(
+            @Parameter(description = "Cursor from the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server", example = "20") @RequestParam int size);
 
-    @Operation(summary = "Get card by ID", description = "Returns a single card by its unique identifier.")
+    @Operation(summary = "Get card by ID", description = "Returns a single card by its unique identifier. "
+            + "Send the returned ETag in If-None-Match to get 304 while the card is unchanged.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Card found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = CardInfoResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Card unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Card not found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
     })
@@ -41,6 +58,17 @@ public interface CardInfoApi {
     ResponseEntity<List<CardInfoResponseDto>> getByIds(
             @Parameter(description = "A comma-separated list of card IDs", required = true, example = "1,2,3") @RequestParam List<Long> ids);
 
+    @Operation(summary = "Get many cards by their IDs", description = "Takes the ids in the request body, so it is not bound by URL length. "
+            + "Streams the cards as a JSON array in the order of the ids; duplicate ids are returned once and unknown ids are left out.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cards in request order",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CardInfoResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<StreamingResponseBody> getByIdsInBody(
+            @Parameter(description = "Ids of the cards to retrieve", required = true) @Valid @RequestBody BulkLookupRequestDto request);
+
     @Operation(summary = "Create a new card", description = "Creates a new card with the provided data and associates it with a user.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Card created successfully",
@@ -52,17 +80,23 @@ public interface CardInfoApi {
     })
     ResponseEntity<CardInfoResponseDto> create(@Valid @RequestBody CardInfoWithUserIdRequestDto u);
 
-    @Operation(summary = "Update an existing card", description = "Updates the details of an existing card by its ID.")
+    @Operation(summary = "Update an existing card", description = "Updates the details of an existing card by its ID. "
+            + "Send the card's ETag in If-Match to update only if nobody changed the card in the meantime.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Card updated successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = CardInfoResponseDto.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "Card or User not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "409", description = "Card was modified by a concurrent request",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
     })
     ResponseEntity<CardInfoResponseDto> updateById(
             @Parameter(description = "ID of the card to be updated", required = true, example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag of the card as last read", example = "\"0\"") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CardInfoWithUserIdRequestDto u);
 
     @Operation(summary = "Delete a card by ID", description = "Deletes a card from the system by its unique identifier.")
@@ -87,12 +121,30 @@ public interface CardInfoApi {
             @Parameter(description = "ID of the user to whom the card will be added", required = true, example = "1") @PathVariable("userId") Long userId,
             @Valid @RequestBody CardInfoRequestDto cardInfoRequestDto);
 
-    @Operation(summary = "Get all cards for a specific user", description = "Returns a list of all cards associated with a given user ID.")
+    @Operation(summary = "Get all cards for a specific user", description = "Returns a list of all cards associated with a given user ID. "
+            + "Send the returned ETag in If-None-Match to get 304 while no card was added, changed or removed.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved user's cards"),
+            @ApiResponse(responseCode = "304", description = "Cards unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
     })
     ResponseEntity<List<CardInfoResponseDto>> getCardInfoByUserId(
             @Parameter(description = "ID of the user whose cards are to be retrieved", required = true, example = "1") @PathVariable Long userId);
+
+    @Operation(summary = "Import cards", description = "Streams cards from a CSV (user_id,number,holder,expiration_date with a header line) "
+            + "or NDJSON body into the database. Invalid records, unknown users and duplicate cards are skipped and reported.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Cards to import", required = true, content = {
+                    @Content(mediaType = "text/csv"),
+                    @Content(mediaType = "application/x-ndjson")
+            }))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CardImportReportDto.class))),
+            @ApiResponse(responseCode = "400", description = "Body is not valid CSV or has the wrong number of columns",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<CardImportReportDto> importCards(
+            @Parameter(hidden = true) MediaType contentType,
+            @Parameter(hidden = true) InputStream body) throws IOException;
 }
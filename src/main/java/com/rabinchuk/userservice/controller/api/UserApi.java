@@ -1,6 +1,12 @@
 package com.rabinchuk.userservice.controller.api;
 
+import com.rabinchuk.userservice.dto.BulkItemResultDto;
+import com.rabinchuk.userservice.dto.BulkLookupRequestDto;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
 import com.rabinchuk.userservice.dto.ErrorResponseDto;
+import com.rabinchuk.userservice.dto.UserBulkCreateRequestDto;
+import com.rabinchuk.userservice.dto.UserBulkDeleteRequestDto;
+import com.rabinchuk.userservice.dto.UserBulkUpdateRequestDto;
 import com.rabinchuk.userservice.dto.UserRequestDto;
 import com.rabinchuk.userservice.dto.UserResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,24 +17,47 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @Tag(name = "User Management", description = "APIs for creating, retrieving, updating, and deleting users")
 public interface UserApi {
 
-    @Operation(summary = "Get all users", description = "Returns a list of all users in the system.")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved list of users")
-    ResponseEntity<List<UserResponseDto>> getAll();
+    @Operation(summary = "Get all users", description = "Returns one page of users ordered by id. Pass the returned nextCursor to get the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of users"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<CursorPageResponseDto<UserResponseDto>> getAll(
+            @Parameter(description = "Cursor from the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server", example = "20") @RequestParam int size);
+
+    @Operation(summary = "Search users", description = "Finds users whose name, surname or email starts with the query or resembles it, "
+            + "best matches first and equally good matches in ascending id order. Pass the returned nextCursor to get the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page of matching users"),
+            @ApiResponse(responseCode = "400", description = "Query shorter than 3 or longer than 100 characters, or invalid cursor",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<CursorPageResponseDto<UserResponseDto>> search(
+            @Parameter(description = "Part of a name, surname or email", required = true, example = "jord") @RequestParam String query,
+            @Parameter(description = "Cursor from the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped by the server", example = "20") @RequestParam int size);
 
-    @Operation(summary = "Get user by ID", description = "Returns a single user by their unique identifier.")
+    @Operation(summary = "Get user by ID", description = "Returns a single user by their unique identifier. "
+            + "The ETag changes whenever the user or one of its cards changes; send it back in If-None-Match to get 304 while nothing changed.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "User unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
     })
@@ -40,6 +69,17 @@ public interface UserApi {
     ResponseEntity<List<UserResponseDto>> getByIds(
             @Parameter(description = "A comma-separated list of user IDs", required = true, example = "1,2,3") @RequestParam List<Long> ids);
 
+    @Operation(summary = "Get many users by their IDs", description = "Takes the ids in the request body, so it is not bound by URL length. "
+            + "Streams the users as a JSON array in the order of the ids; duplicate ids are returned once and unknown ids are left out.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users in request order",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<StreamingResponseBody> getByIdsInBody(
+            @Parameter(description = "Ids of the users to retrieve", required = true) @Valid @RequestBody BulkLookupRequestDto request);
+
     @Operation(summary = "Create a new user", description = "Creates a new user with the provided data.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "User created successfully",
@@ -49,17 +89,23 @@ public interface UserApi {
     })
     ResponseEntity<UserResponseDto> create(@Valid @RequestBody UserRequestDto u);
 
-    @Operation(summary = "Update an existing user", description = "Updates the details of an existing user by their ID.")
+    @Operation(summary = "Update an existing user", description = "Updates the details of an existing user by their ID. "
+            + "Send the user's ETag in If-Match to update only if nobody changed the user in the meantime.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User updated successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "409", description = "User was modified by a concurrent request",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
     })
     ResponseEntity<UserResponseDto> updateById(
             @Parameter(description = "ID of the user to be updated", required = true, example = "1") @PathVariable("id") Long id,
+            @Parameter(description = "ETag of the user as last read", example = "\"3\"") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserRequestDto u);
 
     @Operation(summary = "Delete a user by ID", description = "Deletes a user from the system by their unique identifier.")
@@ -80,4 +126,36 @@ public interface UserApi {
     })
     ResponseEntity<UserResponseDto> getUserByEmail(
             @Parameter(description = "Email address of the user to be retrieved", required = true, example = "john.doe@example.com") @PathVariable String email);
+
+    @Operation(summary = "Create many users", description = "Creates users in batches. Returns one result per user in request order; users whose email is taken are reported as CONFLICT.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-user results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<List<BulkItemResultDto>> createAll(
+            @Parameter(description = "Users to create", required = true) @Valid @RequestBody UserBulkCreateRequestDto request);
+
+    @Operation(summary = "Update many users", description = "Updates users in batches. Returns one result per user in request order; unknown ids are reported as NOT_FOUND and taken emails as CONFLICT.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-user results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<List<BulkItemResultDto>> updateAll(
+            @Parameter(description = "Ids and new data of the users to update", required = true) @Valid @RequestBody UserBulkUpdateRequestDto request);
+
+    @Operation(summary = "Delete many users", description = "Deletes users and their cards in batches. Returns one result per id in request order; unknown ids are reported as NOT_FOUND.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-id results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    ResponseEntity<List<BulkItemResultDto>> deleteAll(
+            @Parameter(description = "Ids of the users to delete", required = true) @Valid @RequestBody UserBulkDeleteRequestDto request);
+
+    @Operation(summary = "Export all users", description = "Streams every user with their cards as NDJSON, one user per line in ascending id order.")
+    @ApiResponse(responseCode = "200", description = "Export stream",
+            content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = UserResponseDto.class)))
+    ResponseEntity<StreamingResponseBody> export();
 }
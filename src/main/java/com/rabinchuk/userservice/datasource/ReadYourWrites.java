@@ -0,0 +1,130 @@
+package com.rabinchuk.userservice.datasource;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Read-your-writes on top of replica routing. Once a request commits a write, its response carries a short-lived
+ * signed token in {@value #HEADER}, and the rest of the request reads from the primary. A client that sends the
+ * token back is pinned to the primary until it expires. The token holds nothing but its expiry, so every instance
+ * sharing the secret accepts it.
+ */
+public class ReadYourWrites {
+
+    public static final String HEADER = "X-Primary-Pin";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<RequestState> requests = new ThreadLocal<>();
+    private final SecretKeySpec key;
+    private final Duration pinDuration;
+    private final Clock clock;
+
+    public ReadYourWrites(String secret, Duration pinDuration, Clock clock) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.pinDuration = pinDuration;
+        this.clock = clock;
+    }
+
+    public void bind(HttpServletResponse response, String token) {
+        requests.set(new RequestState(response, isValid(token)));
+    }
+
+    public void unbind() {
+        requests.remove();
+    }
+
+    public boolean isPinned() {
+        RequestState state = requests.get();
+        return state != null && state.pinned;
+    }
+
+    /**
+     * Issues a token for the bound request once the current write transaction commits.
+     */
+    void onWriteTransaction() {
+        RequestState state = requests.get();
+        if (state == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PinAfterCommit pending && pending.state == state) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new PinAfterCommit(state));
+    }
+
+    String issueToken() {
+        String expiresAt = String.valueOf(clock.millis() + pinDuration.toMillis());
+        return expiresAt + "." + sign(expiresAt);
+    }
+
+    boolean isValid(String token) {
+        if (token == null) {
+            return false;
+        }
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            return false;
+        }
+        String expiresAt = token.substring(0, separator);
+        byte[] signature = token.substring(separator + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(signature, sign(expiresAt).getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+        try {
+            return Long.parseLong(expiresAt) > clock.millis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(String value) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign primary pin token", e);
+        }
+    }
+
+    private static final class RequestState {
+
+        private final HttpServletResponse response;
+        private volatile boolean pinned;
+
+        private RequestState(HttpServletResponse response, boolean pinned) {
+            this.response = response;
+            this.pinned = pinned;
+        }
+    }
+
+    private final class PinAfterCommit implements TransactionSynchronization {
+
+        private final RequestState state;
+
+        private PinAfterCommit(RequestState state) {
+            this.state = state;
+        }
+
+        @Override
+        public void afterCommit() {
+            state.pinned = true;
+            if (!state.response.isCommitted()) {
+                state.response.setHeader(HEADER, issueToken());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.rabinchuk.userservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds {@link ReadYourWrites} to the request, ahead of the security filters, which already read from the database.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        readYourWrites.bind(response, request.getHeader(ReadYourWrites.HEADER));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.unbind();
+        }
+    }
+}
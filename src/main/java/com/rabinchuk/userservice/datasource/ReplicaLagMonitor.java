@@ -0,0 +1,115 @@
+package com.rabinchuk.userservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically measures the replay lag of each replica and keeps only the replicas within {@code maxLag} in
+ * rotation. A replica that cannot be queried counts as lagging, and no replica is in rotation before the first
+ * check, so reads fall back to the primary rather than to a replica of unknown state.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements DisposableBean {
+
+    /**
+     * Lag in milliseconds; zero when everything received has been replayed, so an idle primary does not make
+     * its replicas look stale. {@code NULL} when the lag cannot be determined.
+     */
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+                   END
+            """;
+
+    @Getter
+    private final Map<String, HikariDataSource> replicas;
+    @Getter
+    private final Duration maxLag;
+    private final Map<String, JdbcTemplate> lagQueries = new ConcurrentHashMap<>();
+    private final Map<String, Double> lagMillis = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> inRotation = List.of();
+
+    public ReplicaLagMonitor(Map<String, HikariDataSource> replicas,
+                             Duration maxLag,
+                             Duration queryTimeout,
+                             MeterRegistry meterRegistry) {
+        this.replicas = Map.copyOf(replicas);
+        this.maxLag = maxLag;
+        replicas.forEach((name, dataSource) -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+            lagQueries.put(name, jdbcTemplate);
+            Gauge.builder("datasource.replica.lag", lagMillis, lags -> lags.getOrDefault(name, Double.NaN))
+                    .description("Replay lag of the replica as of the last check")
+                    .tag("replica", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        });
+    }
+
+    /**
+     * Picks the next replica in rotation, or {@code null} when none is within the allowed lag.
+     */
+    public String nextReplica() {
+        List<String> candidates = inRotation;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval:1s}")
+    public void checkLag() {
+        List<String> healthy = new ArrayList<>(lagQueries.size());
+        lagQueries.forEach((name, jdbcTemplate) -> {
+            Double lag = measureLag(name, jdbcTemplate);
+            if (lag == null) {
+                lagMillis.remove(name);
+            } else {
+                lagMillis.put(name, lag);
+            }
+            boolean withinLag = lag != null && lag <= maxLag.toMillis();
+            boolean wasInRotation = inRotation.contains(name);
+            if (withinLag) {
+                healthy.add(name);
+                if (!wasInRotation) {
+                    log.info("Replica {} is in rotation, lag {} ms", name, lag);
+                }
+            } else if (wasInRotation) {
+                log.warn("Replica {} is out of rotation, lag {} ms exceeds {} ms", name, lag, maxLag.toMillis());
+            }
+        });
+        healthy.sort(null);
+        inRotation = List.copyOf(healthy);
+    }
+
+    private Double measureLag(String name, JdbcTemplate jdbcTemplate) {
+        try {
+            return jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+        } catch (RuntimeException e) {
+            log.debug("Failed to measure lag of replica {}", name, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
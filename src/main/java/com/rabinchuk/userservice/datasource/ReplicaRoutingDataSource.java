@@ -0,0 +1,49 @@
+package com.rabinchuk.userservice.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to a replica in rotation and everything else to the primary.
+ * Requests pinned by {@link ReadYourWrites} read from the primary as well.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager opens its connection before the read-only flag of the new transaction is bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor replicaLagMonitor, ReadYourWrites readYourWrites) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>(replicaLagMonitor.getReplicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.onWriteTransaction();
+            }
+            return PRIMARY;
+        }
+        if (readYourWrites.isPinned()) {
+            return PRIMARY;
+        }
+        String replica = replicaLagMonitor.nextReplica();
+        return replica != null ? replica : PRIMARY;
+    }
+}
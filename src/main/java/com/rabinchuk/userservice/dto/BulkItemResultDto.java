@@ -0,0 +1,21 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "Outcome of one item of a bulk request")
+public record BulkItemResultDto(
+        @Schema(description = "Position of the item in the request", example = "0")
+        int index,
+
+        @Schema(description = "Id of the affected user", example = "1", nullable = true)
+        Long id,
+
+        @Schema(description = "Outcome of the item", example = "CREATED")
+        BulkItemStatus status,
+
+        @Schema(description = "Why the item was not applied", example = "User already exists with email: john.doe@example.com", nullable = true)
+        String errorMessage
+) {
+}
@@ -0,0 +1,10 @@
+package com.rabinchuk.userservice.dto;
+
+public enum BulkItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    CONFLICT,
+    FAILED
+}
@@ -0,0 +1,19 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "Data Transfer Object for looking up many users or cards by id in one request")
+public record BulkLookupRequestDto(
+        @Schema(description = "Ids to look up; duplicates are returned once", example = "[1, 2, 3]")
+        @NotEmpty(message = "Ids are required")
+        @Size(max = 50000, message = "At most 50000 ids per request")
+        List<@NotNull(message = "Id must not be null") Long> ids
+) {
+}
@@ -0,0 +1,15 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "A row of a card import that was not imported")
+public record CardImportRejectionDto(
+        @Schema(description = "1-based position of the record in the import, not counting the CSV header", example = "42")
+        long row,
+
+        @Schema(description = "Why the row was rejected", example = "User not found")
+        String reason
+) {
+}
@@ -0,0 +1,23 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "Outcome of a card import")
+public record CardImportReportDto(
+        @Schema(description = "Number of records read from the import", example = "1000000")
+        long received,
+
+        @Schema(description = "Number of cards added", example = "999990")
+        long imported,
+
+        @Schema(description = "Number of records rejected", example = "10")
+        long rejected,
+
+        @Schema(description = "Rejected records in row order, truncated to the server's reporting limit")
+        List<CardImportRejectionDto> rejections
+) {
+}
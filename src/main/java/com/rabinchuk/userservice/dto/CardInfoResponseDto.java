@@ -18,6 +18,8 @@ public record CardInfoResponseDto(
         @Schema(description = "Name of the cardholder", example = "John Doe")
         String holder,
         @Schema(description = "Card's expiration date", example = "2028-12-31")
-        LocalDate expirationDate
+        LocalDate expirationDate,
+        @Schema(description = "Version of the card, also sent as the ETag", example = "0")
+        Long version
 ) implements Serializable {
 }
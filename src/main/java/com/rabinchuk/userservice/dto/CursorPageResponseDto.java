@@ -0,0 +1,17 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "One page of a listing, with a cursor for the next page")
+public record CursorPageResponseDto<T>(
+        @Schema(description = "Items of this page, in the order of the listing")
+        List<T> content,
+        @Schema(description = "Opaque cursor to pass as 'cursor' to fetch the next page; null on the last page",
+                example = "MToxMjM", nullable = true)
+        String nextCursor
+) {
+}
@@ -0,0 +1,20 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "Data Transfer Object for creating many users in one request")
+public record UserBulkCreateRequestDto(
+        @Schema(description = "Users to create")
+        @NotEmpty(message = "Users are required")
+        @Size(max = 5000, message = "At most 5000 users per request")
+        List<@NotNull(message = "User must not be null") @Valid UserRequestDto> users
+) {
+}
@@ -0,0 +1,19 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@Schema(description = "Data Transfer Object for deleting many users in one request")
+public record UserBulkDeleteRequestDto(
+        @Schema(description = "Ids of the users to delete", example = "[1, 2, 3]")
+        @NotEmpty(message = "Ids are required")
+        @Size(max = 5000, message = "At most 5000 ids per request")
+        List<@NotNull(message = "Id must not be null") Long> ids
+) {
+}
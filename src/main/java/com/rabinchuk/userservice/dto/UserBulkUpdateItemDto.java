@@ -0,0 +1,20 @@
+package com.rabinchuk.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "New state of one existing user")
+public record UserBulkUpdateItemDto(
+        @Schema(description = "Id of the user to update", example = "1")
+        @NotNull(message = "User id is required")
+        Long id,
+
+        @Schema(description = "New user data")
+        @NotNull(message = "User is required")
+        @Valid
+        UserRequestDto user
+) {
+}
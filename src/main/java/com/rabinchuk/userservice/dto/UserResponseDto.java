@@ -20,6 +20,8 @@ public record UserResponseDto(
         LocalDate birthDate,
         @Schema(description = "User's email address", example = "john.doe@example.com")
         String email,
+        @Schema(description = "Version of the user and its cards, also sent as the ETag", example = "3")
+        Long version,
         @Schema(description = "List of cards associated with the user")
         List<CardInfoResponseDto> cards
 ) implements Serializable {
@@ -0,0 +1,20 @@
+package com.rabinchuk.userservice.expiration;
+
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+
+import java.util.List;
+
+/**
+ * Acts on cards found by the card expiration scan, such as notifying their owners or cleaning them up.
+ * <p>
+ * Chunks are handled concurrently and a chunk may be handed over again after an interrupted scan resumes,
+ * so implementations must be thread-safe and idempotent.
+ */
+public interface ExpiringCardHandler {
+
+    /**
+     * @param cards cards of one chunk, ordered by expiration date, then id
+     */
+    void handle(List<CardInfoResponseDto> cards);
+
+}
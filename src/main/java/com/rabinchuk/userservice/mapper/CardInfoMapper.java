@@ -18,16 +18,19 @@ public interface CardInfoMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "version", ignore = true)
     CardInfo toEntity(CardInfoRequestDto cardInfoRequestDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "version", ignore = true)
     CardInfo toEntity(CardInfoWithUserIdRequestDto cardInfoWithUserIdRequestDto);
 
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateCardInfoFromDto(CardInfoWithUserIdRequestDto cardInfoWithUserIdRequestDto, @MappingTarget CardInfo cardInfo);
 }
 
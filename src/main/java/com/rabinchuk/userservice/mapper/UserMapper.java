@@ -14,9 +14,11 @@ public interface UserMapper {
 
     @Mapping(target = "cards", ignore = true)
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     User toEntity(UserRequestDto userRequestDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "cards", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateUserFromDto(UserRequestDto userRequestDto, @MappingTarget User user);
 }
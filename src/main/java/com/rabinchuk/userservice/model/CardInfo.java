@@ -10,12 +10,15 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.time.LocalDate;
@@ -41,6 +44,7 @@ public class CardInfo {
     @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
     @Column(name = "number", nullable = false, length = 16)
@@ -52,6 +56,10 @@ public class CardInfo {
     @Column(name = "expiration_date", nullable = false)
     private LocalDate expirationDate;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
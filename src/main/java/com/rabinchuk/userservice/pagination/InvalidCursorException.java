@@ -0,0 +1,8 @@
+package com.rabinchuk.userservice.pagination;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
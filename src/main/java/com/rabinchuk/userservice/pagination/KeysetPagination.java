@@ -0,0 +1,116 @@
+package com.rabinchuk.userservice.pagination;
+
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination on ascending ids: a page is "the next {@code size} rows with id greater than the cursor",
+ * which an index range scan answers at the same cost for every page. The cursor is the last id of the
+ * previous page, encoded so that clients treat it as opaque.
+ * <p>
+ * Rankings such as search results page the same way on {@link RankedKey}: descending score, then ascending id.
+ */
+@Component
+public class KeysetPagination {
+
+    private static final String CURSOR_PREFIX = "1:";
+    private static final String RANKED_CURSOR_PREFIX = "2:";
+
+    private final int maxPageSize;
+
+    public KeysetPagination(@Value("${app.pagination.max-size:100}") int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public int pageSize(int requestedSize) {
+        return Math.clamp(requestedSize, 1, maxPageSize);
+    }
+
+    /**
+     * One row more than the page size, so {@link #toPage} can tell whether another page follows.
+     */
+    public Limit fetchLimit(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    public long afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(decode(cursor, CURSOR_PREFIX));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public RankedKey afterRankedKey(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return RankedKey.FIRST;
+        }
+        try {
+            String[] parts = decode(cursor, RANKED_CURSOR_PREFIX).split(":", 2);
+            return new RankedKey(Float.parseFloat(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * @param rows up to {@link #fetchLimit} rows in ascending id order
+     */
+    public <T> CursorPageResponseDto<T> toPage(List<T> rows, int pageSize, Function<T, Long> idExtractor) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageResponseDto<>(rows, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        return new CursorPageResponseDto<>(content, encode(idExtractor.apply(content.getLast())));
+    }
+
+    /**
+     * @param rows up to {@link #fetchLimit} rows in ranking order
+     */
+    public <T> CursorPageResponseDto<T> toRankedPage(List<T> rows, int pageSize, Function<T, RankedKey> keyExtractor) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageResponseDto<>(rows, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        RankedKey last = keyExtractor.apply(content.getLast());
+        return new CursorPageResponseDto<>(content, encode(RANKED_CURSOR_PREFIX + last.score() + ":" + last.id()));
+    }
+
+    private static String encode(long lastId) {
+        return encode(CURSOR_PREFIX + lastId);
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor, String prefix) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(prefix)) {
+            throw new IllegalArgumentException("Unexpected cursor prefix");
+        }
+        return decoded.substring(prefix.length());
+    }
+
+    /**
+     * Position in a ranking ordered by descending score, then ascending id.
+     */
+    public record RankedKey(float score, long id) {
+
+        /**
+         * Ahead of every real score, so the first page starts at the top of the ranking.
+         */
+        public static final RankedKey FIRST = new RankedKey(Float.MAX_VALUE, 0);
+    }
+}
@@ -1,11 +1,15 @@
 package com.rabinchuk.userservice.repository;
 
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
 import com.rabinchuk.userservice.model.CardInfo;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,11 +24,51 @@ public interface CardInfoRepository extends JpaRepository<CardInfo, Long> {
             """)
     Optional<CardInfo> findById(@Param("id") Long id);
 
+    @Query("""
+            SELECT new com.rabinchuk.userservice.dto.CardInfoResponseDto(c.id, c.user.id, c.number, c.holder, c.expirationDate, c.version)
+            FROM CardInfo c
+            WHERE c.id IN :ids
+            """)
+    List<CardInfoResponseDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.rabinchuk.userservice.dto.CardInfoResponseDto(c.id, c.user.id, c.number, c.holder, c.expirationDate, c.version)
+            FROM CardInfo c
+            WHERE c.user.id = :userId
+            ORDER BY c.id
+            """)
+    List<CardInfoResponseDto> findDtosByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            SELECT c.user.id
+            FROM CardInfo c
+            WHERE c.id = :id
+            """)
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    @Query("""
+            SELECT new com.rabinchuk.userservice.dto.CardInfoResponseDto(c.id, c.user.id, c.number, c.holder, c.expirationDate, c.version)
+            FROM CardInfo c
+            WHERE c.id > :afterId
+            ORDER BY c.id
+            """)
+    List<CardInfoResponseDto> findDtoPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Deletes the card and increments its owner's version in one statement; returns the owner's id.
+     */
+    @Transactional
     @Query(value = """
-            SELECT *
-            FROM card_info c
-            WHERE c.user_id = :userId
+            WITH deleted AS (
+                DELETE FROM card_info
+                WHERE id = :id
+                RETURNING user_id
+            )
+            UPDATE users
+            SET version = version + 1
+            WHERE id = (SELECT user_id FROM deleted)
+            RETURNING id
             """, nativeQuery = true)
-    List<CardInfo> findByUserId(@Param("userId") Long userId);
+    Optional<Long> deleteByIdReturningUserId(@Param("id") Long id);
 
 }
@@ -0,0 +1,24 @@
+package com.rabinchuk.userservice.repository;
+
+import jakarta.persistence.Tuple;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Email and card ids of a user removed by {@link UserRepository#deleteByIdReturningCards}, as needed for cache eviction.
+ */
+public record DeletedUser(String email, List<Long> cardIds) {
+
+    static Optional<DeletedUser> fromRows(List<Tuple> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Long> cardIds = rows.stream()
+                .map(row -> row.get("card_id", Long.class))
+                .filter(Objects::nonNull)
+                .toList();
+        return Optional.of(new DeletedUser(rows.get(0).get("email", String.class), cardIds));
+    }
+}
@@ -1,21 +1,117 @@
 package com.rabinchuk.userservice.repository;
 
+import com.rabinchuk.userservice.dto.UserResponseDto;
 import com.rabinchuk.userservice.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Loads the user for a change to one of its cards. The version is incremented on commit even though the user
+     * row itself is unchanged, so the user's ETag follows its cards.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("""
+            SELECT u
+            FROM User u
+            WHERE u.id = :id
+            """)
+    Optional<User> findByIdIncrementingVersion(@Param("id") Long id);
+
+    @Query("""
+            SELECT u.id
+            FROM User u
+            WHERE u.email = :email
+            """)
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("""
+            SELECT u.id
+            FROM User u
+            WHERE u.id > :afterId
+            ORDER BY u.id
+            """)
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Ranks users matching {@code query} by name, surname or email through the trigram indexes. Names match on
+     * similarity, emails on word similarity, so that one part of an address is enough; prefix matches rank above
+     * all others. Returns {@code id} and {@code score} rows after {@code (afterScore, afterId)} in ranking order.
+     */
     @Query(value = """
-            SELECT *
-            FROM users
-            WHERE email = :email
+            SELECT id, score
+            FROM (
+                SELECT u.id,
+                       CAST(GREATEST(similarity(u.name, :query), similarity(u.surname, :query), word_similarity(:query, u.email))
+                            + CASE WHEN u.name ILIKE :prefix OR u.surname ILIKE :prefix OR u.email ILIKE :prefix THEN 1 ELSE 0 END
+                            AS real) AS score
+                FROM users u
+                WHERE u.name % :query OR u.surname % :query OR :query <% u.email
+                   OR u.name ILIKE :prefix OR u.surname ILIKE :prefix OR u.email ILIKE :prefix
+            ) ranked
+            WHERE score < :afterScore OR (score = :afterScore AND id > :afterId)
+            ORDER BY score DESC, id
+            LIMIT :limit
             """, nativeQuery = true)
-    Optional<User> findUserByEmail(@Param("email") String email);
+    List<Tuple> searchRanked(@Param("query") String query,
+                             @Param("prefix") String prefix,
+                             @Param("afterScore") float afterScore,
+                             @Param("afterId") long afterId,
+                             @Param("limit") int limit);
+
+    /**
+     * One row per user and card, ordered by user id, selected without loading entities.
+     * Use {@link #findDtosByIdIn} to get them as response DTOs.
+     */
+    @Query("""
+            SELECT u.id AS id, u.name AS name, u.surname AS surname, u.birthDate AS birthDate, u.email AS email, u.version AS version,
+                   c.id AS cardId, c.number AS cardNumber, c.holder AS cardHolder, c.expirationDate AS cardExpirationDate,
+                   c.version AS cardVersion
+            FROM User u
+            LEFT JOIN u.cards c
+            WHERE u.id IN :ids
+            ORDER BY u.id, c.id
+            """)
+    List<Tuple> findUserRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    default List<UserResponseDto> findDtosByIdIn(Collection<Long> ids) {
+        return UserRows.toDtos(findUserRowsByIdIn(ids));
+    }
+
+    /**
+     * Deletes the user in one statement, its cards going with it through {@code ON DELETE CASCADE}.
+     * Returns one row per deleted card, or a single row with a null card id for a user without cards;
+     * the join reads the snapshot taken before the delete, so the cascaded cards are still listed.
+     * Use {@link #deleteByIdReturningCards} to get them folded into a {@link DeletedUser}.
+     */
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM users
+                WHERE id = :id
+                RETURNING id, email
+            )
+            SELECT d.email AS email, c.id AS card_id
+            FROM deleted d
+            LEFT JOIN card_info c ON c.user_id = d.id
+            """, nativeQuery = true)
+    List<Tuple> deleteRowsById(@Param("id") Long id);
+
+    default Optional<DeletedUser> deleteByIdReturningCards(Long id) {
+        return DeletedUser.fromRows(deleteRowsById(id));
+    }
 
 }
@@ -0,0 +1,59 @@
+package com.rabinchuk.userservice.repository;
+
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import jakarta.persistence.Tuple;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds the flat user-with-card rows of {@link UserRepository#findUserRowsByIdIn} into response DTOs.
+ * Rows must be ordered by user id, so each user's rows are consecutive.
+ */
+final class UserRows {
+
+    private UserRows() {
+    }
+
+    static List<UserResponseDto> toDtos(List<Tuple> rows) {
+        List<UserResponseDto> users = new ArrayList<>();
+        Tuple userRow = null;
+        List<CardInfoResponseDto> cards = null;
+        for (Tuple row : rows) {
+            if (userRow == null || !userRow.get("id").equals(row.get("id"))) {
+                if (userRow != null) {
+                    users.add(toDto(userRow, cards));
+                }
+                userRow = row;
+                cards = new ArrayList<>();
+            }
+            Long cardId = row.get("cardId", Long.class);
+            if (cardId != null) {
+                cards.add(new CardInfoResponseDto(
+                        cardId,
+                        row.get("id", Long.class),
+                        row.get("cardNumber", String.class),
+                        row.get("cardHolder", String.class),
+                        row.get("cardExpirationDate", LocalDate.class),
+                        row.get("cardVersion", Long.class)));
+            }
+        }
+        if (userRow != null) {
+            users.add(toDto(userRow, cards));
+        }
+        return users;
+    }
+
+    private static UserResponseDto toDto(Tuple row, List<CardInfoResponseDto> cards) {
+        return new UserResponseDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("surname", String.class),
+                row.get("birthDate", LocalDate.class),
+                row.get("email", String.class),
+                row.get("version", Long.class),
+                cards);
+    }
+}
@@ -0,0 +1,8 @@
+package com.rabinchuk.userservice.search;
+
+public class InvalidSearchQueryException extends RuntimeException {
+
+    public InvalidSearchQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.rabinchuk.userservice.search;
+
+/**
+ * A user search term as matched against the trigram indexes: {@code text} for fuzzy matching and
+ * {@code prefixPattern} for an {@code ILIKE} prefix match, with the LIKE wildcards of the term escaped.
+ * Terms shorter than one trigram cannot use the indexes and are rejected.
+ */
+public record SearchQuery(String text, String prefixPattern) {
+
+    public static final int MIN_LENGTH = 3;
+    public static final int MAX_LENGTH = 100;
+
+    public static SearchQuery parse(String query) {
+        String text = query == null ? "" : query.strip();
+        if (text.length() < MIN_LENGTH || text.length() > MAX_LENGTH) {
+            throw new InvalidSearchQueryException(
+                    "Search query must be between " + MIN_LENGTH + " and " + MAX_LENGTH + " characters long");
+        }
+        String escaped = text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return new SearchQuery(text, escaped + "%");
+    }
+}
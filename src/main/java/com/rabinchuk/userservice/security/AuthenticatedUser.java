@@ -0,0 +1,17 @@
+package com.rabinchuk.userservice.security;
+
+import java.security.Principal;
+
+/**
+ * Principal of a JWT-authenticated caller. {@code id} is {@code null} when the caller has no user record yet.
+ */
+public record AuthenticatedUser(
+        Long id,
+        String email
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -20,7 +20,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String USER_ID_CLAIM = "userId";
+
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserIdResolver userIdResolver;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -38,12 +41,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (jwtTokenProvider.validatetoken(token)) {
             Claims claims = jwtTokenProvider.getClaimsFromToken(token);
             String username = claims.getSubject();
+            Long userId = claims.get(USER_ID_CLAIM, Long.class);
+            if (userId == null) {
+                userId = userIdResolver.resolveUserId(username);
+            }
             List<String> roles = claims.get("roles", List.class);
             List<SimpleGrantedAuthority> authorities = roles.stream()
                     .map(role -> new SimpleGrantedAuthority(role))
                     .toList();
 
-            Authentication authentication = new UsernamePasswordAuthenticationToken(username, null, authorities);
+            Authentication authentication = new UsernamePasswordAuthenticationToken(new AuthenticatedUser(userId, username), null, authorities);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
 
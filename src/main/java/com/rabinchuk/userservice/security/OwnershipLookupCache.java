@@ -0,0 +1,24 @@
+package com.rabinchuk.userservice.security;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Remembers card owner lookups for the duration of one request, so several {@code @PreAuthorize}
+ * checks on the same request hit the database at most once per card.
+ */
+@Component
+@RequestScope
+public class OwnershipLookupCache {
+
+    private final Map<Long, Optional<Long>> ownerIdsByCardId = new HashMap<>();
+
+    public Optional<Long> ownerIdByCardId(Long cardId, Function<Long, Optional<Long>> loader) {
+        return ownerIdsByCardId.computeIfAbsent(cardId, loader);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rabinchuk.userservice.security;
+
+import com.rabinchuk.userservice.repository.CardInfoRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ownership checks for {@code @PreAuthorize} expressions. The caller's user id comes from the
+ * {@link AuthenticatedUser} principal, so only card checks need an (id-only) query.
+ */
+@Component
+@RequiredArgsConstructor
+public class OwnershipService {
+
+    private final CardInfoRepository cardInfoRepository;
+    private final OwnershipLookupCache ownershipLookupCache;
+
+    public boolean isSelf(Long userId, Authentication authentication) {
+        return userId != null
+                && authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && userId.equals(user.id());
+    }
+
+    public boolean isCardOwner(Long cardId, Authentication authentication) {
+        Long ownerId = ownershipLookupCache.ownerIdByCardId(cardId, cardInfoRepository::findUserIdById).orElseThrow(
+                () -> new EntityNotFoundException("Card Info with id " + cardId + " not found!")
+        );
+        return isSelf(ownerId, authentication);
+    }
+}
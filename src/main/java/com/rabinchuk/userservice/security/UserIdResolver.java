@@ -0,0 +1,22 @@
+package com.rabinchuk.userservice.security;
+
+import com.rabinchuk.userservice.cache.CacheNames;
+import com.rabinchuk.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fallback for tokens issued without a {@code userId} claim.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserIdResolver {
+
+    private final UserRepository userRepository;
+
+    @Cacheable(value = CacheNames.USER_ID_CACHE, key = "#email", unless = "#result == null")
+    public Long resolveUserId(String email) {
+        return userRepository.findIdByEmail(email).orElse(null);
+    }
+}
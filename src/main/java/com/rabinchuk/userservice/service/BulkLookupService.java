@@ -0,0 +1,21 @@
+package com.rabinchuk.userservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface BulkLookupService {
+
+    /**
+     * Writes the users with the given ids to {@code out} as a JSON array in the order of their first occurrence
+     * in {@code ids}. Ids without a user are left out.
+     */
+    void writeUsers(List<Long> ids, OutputStream out) throws IOException;
+
+    /**
+     * Writes the cards with the given ids to {@code out} as a JSON array in the order of their first occurrence
+     * in {@code ids}. Ids without a card are left out.
+     */
+    void writeCards(List<Long> ids, OutputStream out) throws IOException;
+
+}
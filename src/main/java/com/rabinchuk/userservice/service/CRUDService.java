@@ -1,9 +1,11 @@
 package com.rabinchuk.userservice.service;
 
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
+
 import java.util.List;
 
 public interface CRUDService<T, U> {
-    List<T> getAll();
+    CursorPageResponseDto<T> getAll(String cursor, int size);
 
     T getById(Long id);
 
@@ -11,7 +13,11 @@ public interface CRUDService<T, U> {
 
     T create(U u);
 
-    T updateById(Long id, U u);
+    /**
+     * Fails with {@link com.rabinchuk.userservice.versioning.PreconditionFailedException} when {@code expectedVersion}
+     * is not {@code null} and differs from the stored version.
+     */
+    T updateById(Long id, U u, Long expectedVersion);
 
     void deleteById(Long id);
 }
@@ -0,0 +1,15 @@
+package com.rabinchuk.userservice.service;
+
+public interface CardExpirationService {
+
+    /**
+     * Hands every card expiring within the next {@code app.card-expiration.days-ahead} days to the
+     * {@link com.rabinchuk.userservice.expiration.ExpiringCardHandler}s. A scan interrupted earlier the same day
+     * resumes from its last checkpoint; a scan that already completed today, or that another node is running,
+     * is skipped.
+     *
+     * @return the number of cards handled by this call
+     */
+    long scanExpiringCards();
+
+}
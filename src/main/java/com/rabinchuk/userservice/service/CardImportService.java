@@ -0,0 +1,17 @@
+package com.rabinchuk.userservice.service;
+
+import com.rabinchuk.userservice.cardimport.CardImportFormat;
+import com.rabinchuk.userservice.dto.CardImportReportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface CardImportService {
+
+    /**
+     * Adds the cards read from {@code in} in one transaction. Records that are invalid, belong to an unknown user
+     * or duplicate an existing card are skipped and reported; the rest are imported.
+     */
+    CardImportReportDto importCards(InputStream in, CardImportFormat format) throws IOException;
+
+}
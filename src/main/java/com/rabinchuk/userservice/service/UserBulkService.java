@@ -0,0 +1,21 @@
+package com.rabinchuk.userservice.service;
+
+import com.rabinchuk.userservice.dto.BulkItemResultDto;
+import com.rabinchuk.userservice.dto.UserBulkUpdateItemDto;
+import com.rabinchuk.userservice.dto.UserRequestDto;
+
+import java.util.List;
+
+/**
+ * Applies many user changes at once. Results are returned in request order, one per item; an item that
+ * cannot be applied is reported and does not fail the others.
+ */
+public interface UserBulkService {
+
+    List<BulkItemResultDto> createAll(List<UserRequestDto> users);
+
+    List<BulkItemResultDto> updateAll(List<UserBulkUpdateItemDto> users);
+
+    List<BulkItemResultDto> deleteAll(List<Long> ids);
+
+}
@@ -0,0 +1,13 @@
+package com.rabinchuk.userservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+
+    /**
+     * Writes every user with their cards to {@code out} as NDJSON, one user per line in ascending id order.
+     */
+    void exportUsers(OutputStream out) throws IOException;
+
+}
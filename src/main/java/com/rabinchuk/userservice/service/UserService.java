@@ -1,9 +1,17 @@
 package com.rabinchuk.userservice.service;
 
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
 import com.rabinchuk.userservice.dto.UserRequestDto;
 import com.rabinchuk.userservice.dto.UserResponseDto;
 
 public interface UserService extends CRUDService<UserResponseDto, UserRequestDto> {
 
     UserResponseDto getUserByEmail(String email);
+
+    /**
+     * Finds users whose name, surname or email matches {@code query} by prefix or approximately, best matches first.
+     * Fails with {@link com.rabinchuk.userservice.search.InvalidSearchQueryException} for a query shorter than
+     * {@value com.rabinchuk.userservice.search.SearchQuery#MIN_LENGTH} characters.
+     */
+    CursorPageResponseDto<UserResponseDto> search(String query, String cursor, int size);
 }
@@ -0,0 +1,118 @@
+package com.rabinchuk.userservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import com.rabinchuk.userservice.service.BulkLookupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Looks ids up in chunks of {@code app.bulk-lookup.chunk-size}, each bound as one array parameter, so every
+ * request runs the same two statements whatever the number of ids, and PostgreSQL can reuse their plans.
+ * Only the current chunk is held in memory; it is written out in request order before the next one is read.
+ */
+@Service
+public class BulkLookupServiceImpl implements BulkLookupService {
+
+    private static final String SELECT_USERS = """
+            SELECT u.id, u.name, u.surname, u.birth_date, u.email, u.version,
+                   c.id AS card_id, c.number, c.holder, c.expiration_date, c.version AS card_version
+            FROM users u
+            LEFT JOIN card_info c ON c.user_id = u.id
+            WHERE u.id = ANY(?)
+            ORDER BY u.id, c.id
+            """;
+
+    private static final String SELECT_CARDS = """
+            SELECT id AS card_id, user_id, number, holder, expiration_date, version AS card_version
+            FROM card_info
+            WHERE id = ANY(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public BulkLookupServiceImpl(JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.bulk-lookup.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeUsers(List<Long> ids, OutputStream out) throws IOException {
+        writeInRequestOrder(ids, out, this::findUsers);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeCards(List<Long> ids, OutputStream out) throws IOException {
+        writeInRequestOrder(ids, out, this::findCards);
+    }
+
+    private void writeInRequestOrder(List<Long> ids, OutputStream out, Function<Long[], Map<Long, ?>> finder) throws IOException {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.writeStartArray();
+        for (int from = 0; from < uniqueIds.size(); from += chunkSize) {
+            List<Long> chunk = uniqueIds.subList(from, Math.min(from + chunkSize, uniqueIds.size()));
+            Map<Long, ?> found = finder.apply(chunk.toArray(Long[]::new));
+            for (Long id : chunk) {
+                Object value = found.get(id);
+                if (value != null) {
+                    generator.writeObject(value);
+                }
+            }
+            generator.flush();
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    private Map<Long, UserResponseDto> findUsers(Long[] ids) {
+        Map<Long, UserResponseDto.UserResponseDtoBuilder> users = new HashMap<>();
+        Map<Long, List<CardInfoResponseDto>> cards = new HashMap<>();
+        jdbcTemplate.query(SELECT_USERS, rs -> {
+            long userId = rs.getLong("id");
+            List<CardInfoResponseDto> userCards = cards.get(userId);
+            if (userCards == null) {
+                users.put(userId, DtoResultSets.user(rs, userId));
+                userCards = new ArrayList<>();
+                cards.put(userId, userCards);
+            }
+            CardInfoResponseDto card = DtoResultSets.card(rs, userId);
+            if (card != null) {
+                userCards.add(card);
+            }
+        }, (Object) ids);
+
+        Map<Long, UserResponseDto> found = new HashMap<>();
+        users.forEach((userId, user) -> found.put(userId, user.cards(cards.get(userId)).build()));
+        return found;
+    }
+
+    private Map<Long, CardInfoResponseDto> findCards(Long[] ids) {
+        Map<Long, CardInfoResponseDto> found = new HashMap<>();
+        jdbcTemplate.query(SELECT_CARDS, rs -> {
+            CardInfoResponseDto card = DtoResultSets.card(rs, rs.getLong("user_id"));
+            found.put(card.id(), card);
+        }, (Object) ids);
+        return found;
+    }
+}
@@ -0,0 +1,287 @@
+package com.rabinchuk.userservice.service.impl;
+
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.expiration.ExpiringCardHandler;
+import com.rabinchuk.userservice.service.CardExpirationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Walks the cards expiring within the scan window in chunks of {@code app.card-expiration.chunk-size}, in
+ * (expiration date, id) order along {@code idx_card_info_expiration_date_id}. One thread reads the chunks; up to
+ * {@code app.card-expiration.parallelism} of them are handled at a time on virtual threads.
+ * <p>
+ * Progress is kept in the single {@code card_expiration_scan} row, which also serves as a lease: only the node
+ * holding it scans, and each checkpoint renews it. A node that dies mid-scan leaves the lease to expire, and the
+ * next run on any node resumes after the last checkpoint.
+ * <p>
+ * Meters: {@code card.expiration.cards} (cards handled), {@code card.expiration.chunks} (handling time per chunk),
+ * {@code card.expiration.chunk.failures} and {@code card.expiration.scans} (time per scan by {@code result}).
+ */
+@Slf4j
+@Service
+public class CardExpirationServiceImpl implements CardExpirationService {
+
+    static final String JOB = "card-expiration";
+
+    private static final String ACQUIRE_SCAN = """
+            UPDATE card_expiration_scan
+            SET locked_by = ?, locked_until = now() + make_interval(secs => ?)
+            WHERE job = ?
+              AND (locked_until IS NULL OR locked_until < now())
+            RETURNING window_start, window_end, after_expiration_date, after_id, completed_at
+            """;
+
+    private static final String START_SCAN = """
+            UPDATE card_expiration_scan
+            SET window_start = ?, window_end = ?, after_expiration_date = NULL, after_id = NULL, completed_at = NULL
+            WHERE job = ? AND locked_by = ?
+            """;
+
+    private static final String SAVE_CHECKPOINT = """
+            UPDATE card_expiration_scan
+            SET after_expiration_date = ?, after_id = ?, locked_until = now() + make_interval(secs => ?)
+            WHERE job = ? AND locked_by = ?
+            """;
+
+    private static final String COMPLETE_SCAN = """
+            UPDATE card_expiration_scan
+            SET completed_at = now(), locked_by = NULL, locked_until = NULL
+            WHERE job = ? AND locked_by = ?
+            """;
+
+    private static final String RELEASE_SCAN = """
+            UPDATE card_expiration_scan
+            SET locked_by = NULL, locked_until = NULL
+            WHERE job = ? AND locked_by = ?
+            """;
+
+    private static final String SELECT_EXPIRING_CARDS = """
+            SELECT id AS card_id, user_id, number, holder, expiration_date, version AS card_version
+            FROM card_info
+            WHERE (expiration_date, id) > (?, ?)
+              AND expiration_date <= ?
+            ORDER BY expiration_date, id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<ExpiringCardHandler> handlers;
+    private final int daysAhead;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration lease;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final MeterRegistry meterRegistry;
+    private final Counter handledCards;
+    private final Timer chunkTimer;
+    private final Counter chunkFailures;
+
+    public CardExpirationServiceImpl(JdbcTemplate jdbcTemplate,
+                                     List<ExpiringCardHandler> handlers,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.card-expiration.days-ahead:30}") int daysAhead,
+                                     @Value("${app.card-expiration.chunk-size:500}") int chunkSize,
+                                     @Value("${app.card-expiration.parallelism:4}") int parallelism,
+                                     @Value("${app.card-expiration.lease:10m}") Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.handlers = handlers;
+        this.daysAhead = daysAhead;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.lease = lease;
+        this.meterRegistry = meterRegistry;
+        this.handledCards = Counter.builder("card.expiration.cards").register(meterRegistry);
+        this.chunkTimer = Timer.builder("card.expiration.chunks").register(meterRegistry);
+        this.chunkFailures = Counter.builder("card.expiration.chunk.failures").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.card-expiration.cron:0 0 3 * * *}")
+    public void scheduledScan() {
+        try {
+            scanExpiringCards();
+        } catch (RuntimeException e) {
+            log.error("Card expiration scan failed; the next run resumes from the last checkpoint", e);
+        }
+    }
+
+    @Override
+    public long scanExpiringCards() {
+        long started = System.nanoTime();
+        if (handlers.isEmpty()) {
+            log.debug("Card expiration scan skipped: no expiring card handlers registered");
+            recordScan("skipped", started);
+            return 0;
+        }
+        List<ScanState> acquired = jdbcTemplate.query(ACQUIRE_SCAN, (rs, rowNum) -> new ScanState(
+                rs.getObject("window_start", LocalDate.class),
+                rs.getObject("window_end", LocalDate.class),
+                rs.getObject("after_expiration_date", LocalDate.class),
+                rs.getObject("after_id", Long.class),
+                rs.getTimestamp("completed_at") != null
+        ), nodeId, leaseSeconds(), JOB);
+        if (acquired.isEmpty()) {
+            log.info("Card expiration scan skipped: another node holds the lease");
+            recordScan("skipped", started);
+            return 0;
+        }
+
+        ScanState state = acquired.getFirst();
+        LocalDate today = LocalDate.now();
+        if (today.equals(state.windowStart()) && state.completed()) {
+            jdbcTemplate.update(RELEASE_SCAN, JOB, nodeId);
+            recordScan("skipped", started);
+            return 0;
+        }
+
+        LocalDate windowEnd;
+        ScanKey after;
+        if (today.equals(state.windowStart())) {
+            windowEnd = state.windowEnd();
+            after = state.afterId() == null
+                    ? new ScanKey(today, 0)
+                    : new ScanKey(state.afterExpirationDate(), state.afterId());
+            log.info("Card expiration scan resuming after card {} expiring {}", after.id(), after.expirationDate());
+        } else {
+            windowEnd = today.plusDays(daysAhead);
+            after = new ScanKey(today, 0);
+            jdbcTemplate.update(START_SCAN, today, windowEnd, JOB, nodeId);
+        }
+
+        long handled;
+        try {
+            handled = scan(after, windowEnd);
+        } catch (RuntimeException e) {
+            jdbcTemplate.update(RELEASE_SCAN, JOB, nodeId);
+            recordScan("failed", started);
+            throw e;
+        }
+        jdbcTemplate.update(COMPLETE_SCAN, JOB, nodeId);
+        long elapsedMillis = recordScan("completed", started);
+        log.info("Card expiration scan handled {} cards expiring until {} in {} ms ({} cards/s)",
+                handled, windowEnd, elapsedMillis, elapsedMillis == 0 ? handled : handled * 1000 / elapsedMillis);
+        return handled;
+    }
+
+    /**
+     * Stops reading at the first failed chunk and rethrows its failure once the chunks in flight are done.
+     */
+    private long scan(ScanKey after, LocalDate windowEnd) {
+        Semaphore permits = new Semaphore(parallelism);
+        Checkpoints checkpoints = new Checkpoints();
+        AtomicLong handled = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ScanKey position = after;
+            long sequence = 0;
+            while (failure.get() == null) {
+                List<CardInfoResponseDto> chunk = jdbcTemplate.query(SELECT_EXPIRING_CARDS,
+                        (rs, rowNum) -> DtoResultSets.card(rs, rs.getLong("user_id")),
+                        position.expirationDate(), position.id(), windowEnd, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                CardInfoResponseDto last = chunk.getLast();
+                position = new ScanKey(last.expirationDate(), last.id());
+
+                ScanKey chunkEnd = position;
+                long chunkSequence = sequence++;
+                permits.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        handleChunk(chunk);
+                        handled.addAndGet(chunk.size());
+                        checkpoints.finish(chunkSequence, chunkEnd);
+                    } catch (RuntimeException e) {
+                        chunkFailures.increment();
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return handled.get();
+    }
+
+    private void handleChunk(List<CardInfoResponseDto> chunk) {
+        chunkTimer.record(() -> handlers.forEach(handler -> handler.handle(chunk)));
+        handledCards.increment(chunk.size());
+    }
+
+    private long recordScan(String result, long started) {
+        long elapsedNanos = System.nanoTime() - started;
+        Timer.builder("card.expiration.scans")
+                .tag("result", result)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsedNanos));
+        return elapsedNanos / 1_000_000;
+    }
+
+    private double leaseSeconds() {
+        return lease.toSeconds();
+    }
+
+    private record ScanState(LocalDate windowStart,
+                             LocalDate windowEnd,
+                             LocalDate afterExpirationDate,
+                             Long afterId,
+                             boolean completed) {
+    }
+
+    private record ScanKey(LocalDate expirationDate, long id) {
+    }
+
+    /**
+     * Chunks finish out of order; the checkpoint moves past a chunk only once every chunk before it has finished,
+     * so a resumed scan never skips a card. Checkpoints are saved under the lock, so they reach the database in order.
+     */
+    private final class Checkpoints {
+
+        private final Map<Long, ScanKey> finished = new HashMap<>();
+        private long nextSequence;
+
+        synchronized void finish(long sequence, ScanKey chunkEnd) {
+            finished.put(sequence, chunkEnd);
+            ScanKey checkpoint = null;
+            while (finished.containsKey(nextSequence)) {
+                checkpoint = finished.remove(nextSequence++);
+            }
+            if (checkpoint == null) {
+                return;
+            }
+            int updated = jdbcTemplate.update(SAVE_CHECKPOINT,
+                    checkpoint.expirationDate(), checkpoint.id(), leaseSeconds(), JOB, nodeId);
+            if (updated == 0) {
+                throw new IllegalStateException("Card expiration scan lost its lease to another node");
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.rabinchuk.userservice.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabinchuk.userservice.cache.CacheInvalidator;
+import com.rabinchuk.userservice.cache.CacheNames;
+import com.rabinchuk.userservice.cardimport.CardImportFormat;
+import com.rabinchuk.userservice.cardimport.InvalidImportException;
+import com.rabinchuk.userservice.dto.CardImportRejectionDto;
+import com.rabinchuk.userservice.dto.CardImportReportDto;
+import com.rabinchuk.userservice.service.CardImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports cards through a temporary staging table: records are streamed in with COPY, checked in a few
+ * set-based statements and merged into {@code card_info} with one INSERT ... SELECT. Staging columns are text
+ * so that bad values become rejected rows instead of failing the COPY.
+ */
+@Slf4j
+@Service
+public class CardImportServiceImpl implements CardImportService {
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE card_import_staging (
+                row_number             bigint GENERATED ALWAYS AS IDENTITY,
+                user_id                text,
+                number                 text,
+                holder                 text,
+                expiration_date        text,
+                reject_reason          text,
+                parsed_user_id         bigint,
+                parsed_expiration_date date
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_CSV = """
+            COPY card_import_staging (user_id, number, holder, expiration_date)
+            FROM STDIN WITH (FORMAT csv, HEADER true)
+            """;
+
+    private static final String COPY_NDJSON = """
+            COPY card_import_staging (user_id, number, holder, expiration_date, reject_reason)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    private static final String VALIDATE_VALUES = """
+            UPDATE card_import_staging
+            SET reject_reason = CASE
+                    WHEN user_id IS NULL OR NOT pg_input_is_valid(user_id, 'bigint') THEN 'Invalid user id'
+                    WHEN number IS NULL OR number !~ '^\\d{16}$' THEN 'Card number must be 16 digits'
+                    WHEN holder IS NULL OR btrim(holder) = '' THEN 'Card holder is required'
+                    WHEN length(holder) > 100 THEN 'Card holder must not exceed 100 characters'
+                    WHEN expiration_date IS NULL OR NOT pg_input_is_valid(expiration_date, 'date') THEN 'Invalid expiration date'
+                    WHEN expiration_date::date <= current_date THEN 'Expiration date must be in the future'
+                END,
+                parsed_user_id = CASE WHEN pg_input_is_valid(user_id, 'bigint') THEN user_id::bigint END,
+                parsed_expiration_date = CASE WHEN pg_input_is_valid(expiration_date, 'date') THEN expiration_date::date END
+            WHERE reject_reason IS NULL
+            """;
+
+    private static final String REJECT_UNKNOWN_USERS = """
+            UPDATE card_import_staging s
+            SET reject_reason = 'User not found'
+            WHERE s.reject_reason IS NULL
+              AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = s.parsed_user_id)
+            """;
+
+    private static final String REJECT_EXISTING_CARDS = """
+            UPDATE card_import_staging s
+            SET reject_reason = 'Card already exists'
+            WHERE s.reject_reason IS NULL
+              AND EXISTS (SELECT 1 FROM card_info c WHERE c.user_id = s.parsed_user_id AND c.number = s.number)
+            """;
+
+    private static final String REJECT_DUPLICATES = """
+            UPDATE card_import_staging s
+            SET reject_reason = 'Duplicate card in import'
+            WHERE s.reject_reason IS NULL
+              AND EXISTS (SELECT 1
+                          FROM card_import_staging d
+                          WHERE d.reject_reason IS NULL
+                            AND d.parsed_user_id = s.parsed_user_id
+                            AND d.number = s.number
+                            AND d.row_number < s.row_number)
+            """;
+
+    private static final String MERGE_CARDS = """
+            INSERT INTO card_info (user_id, number, holder, expiration_date)
+            SELECT parsed_user_id, number, holder, parsed_expiration_date
+            FROM card_import_staging
+            WHERE reject_reason IS NULL
+            ORDER BY row_number
+            """;
+
+    private static final String TOUCH_IMPORTED_USERS = """
+            UPDATE users
+            SET version = version + 1
+            WHERE id IN (SELECT parsed_user_id FROM card_import_staging WHERE reject_reason IS NULL)
+            RETURNING id
+            """;
+
+    private static final String SELECT_REJECTIONS = """
+            SELECT row_number, reject_reason
+            FROM card_import_staging
+            WHERE reject_reason IS NOT NULL
+            ORDER BY row_number
+            LIMIT ?
+            """;
+
+    private static final String COUNT_REJECTIONS = "SELECT count(*) FROM card_import_staging WHERE reject_reason IS NOT NULL";
+
+    private static final String DATA_EXCEPTION_SQL_STATE_CLASS = "22";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidator cacheInvalidator;
+    private final int copyBufferSize;
+    private final int maxReportedRejections;
+
+    public CardImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 CacheInvalidator cacheInvalidator,
+                                 @Value("${app.card-import.copy-buffer-size:65536}") int copyBufferSize,
+                                 @Value("${app.card-import.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.cacheInvalidator = cacheInvalidator;
+        this.copyBufferSize = copyBufferSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    @Override
+    @Transactional
+    public CardImportReportDto importCards(InputStream in, CardImportFormat format) throws IOException {
+        long started = System.nanoTime();
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+        long received = copy(in, format);
+        log.info("Card import: staged {} {} records in {} ms", received, format, elapsedMillis(started));
+
+        jdbcTemplate.execute("ANALYZE card_import_staging");
+        jdbcTemplate.update(VALIDATE_VALUES);
+        jdbcTemplate.update(REJECT_UNKNOWN_USERS);
+        jdbcTemplate.update(REJECT_EXISTING_CARDS);
+        jdbcTemplate.update(REJECT_DUPLICATES);
+        long rejected = jdbcTemplate.queryForObject(COUNT_REJECTIONS, Long.class);
+        log.info("Card import: validated {} records, {} rejected, after {} ms", received, rejected, elapsedMillis(started));
+
+        long imported = jdbcTemplate.update(MERGE_CARDS);
+        jdbcTemplate.queryForList(TOUCH_IMPORTED_USERS, Long.class).forEach(userId -> {
+            cacheInvalidator.evictAfterCommit(CacheNames.USER_CARDS_CACHE, userId);
+            cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, userId);
+        });
+        log.info("Card import: merged {} cards in {} ms", imported, elapsedMillis(started));
+
+        List<CardImportRejectionDto> rejections = jdbcTemplate.query(SELECT_REJECTIONS,
+                (rs, rowNum) -> new CardImportRejectionDto(rs.getLong("row_number"), rs.getString("reject_reason")),
+                maxReportedRejections);
+
+        return CardImportReportDto.builder()
+                .received(received)
+                .imported(imported)
+                .rejected(rejected)
+                .rejections(rejections)
+                .build();
+    }
+
+    private long copy(InputStream in, CardImportFormat format) throws IOException {
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try {
+                    return switch (format) {
+                        case CSV -> pgConnection.getCopyAPI().copyIn(COPY_CSV, in, copyBufferSize);
+                        case NDJSON -> copyNdjson(pgConnection, in);
+                    };
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (DataAccessException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith(DATA_EXCEPTION_SQL_STATE_CLASS)) {
+                throw new InvalidImportException("Malformed import data: " + sqlException.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Re-encodes NDJSON records as CSV for COPY. A line that is not a JSON object is staged with a reject reason,
+     * so it is reported with its row number like any other invalid record.
+     */
+    private long copyNdjson(PGConnection pgConnection, InputStream in) throws SQLException, IOException {
+        PGCopyOutputStream copyOut = new PGCopyOutputStream(pgConnection, COPY_NDJSON, copyBufferSize);
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(copyOut, StandardCharsets.UTF_8), copyBufferSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    writeNdjsonRecord(writer, line);
+                }
+            }
+            writer.flush();
+            return copyOut.endCopy();
+        } finally {
+            if (copyOut.isActive()) {
+                copyOut.cancelCopy();
+            }
+        }
+    }
+
+    private void writeNdjsonRecord(Writer writer, String line) throws IOException {
+        JsonNode record;
+        try {
+            record = objectMapper.readTree(line);
+        } catch (IOException e) {
+            record = null;
+        }
+        if (record == null || !record.isObject()) {
+            writeCsvRow(writer, null, null, null, null, "Malformed JSON record");
+            return;
+        }
+        writeCsvRow(writer, text(record, "userId"), text(record, "number"), text(record, "holder"), text(record, "expirationDate"), null);
+    }
+
+    private static String text(JsonNode record, String field) {
+        JsonNode value = record.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * Writes one CSV row; {@code null} becomes an unquoted empty field, which COPY reads as NULL.
+     */
+    private static void writeCsvRow(Writer writer, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write('"');
+                writer.write(values[i].replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+}
@@ -1,21 +1,27 @@
 package com.rabinchuk.userservice.service.impl;
 
+import com.rabinchuk.userservice.batching.BatchLoader;
+import com.rabinchuk.userservice.cache.CacheInvalidator;
+import com.rabinchuk.userservice.cache.CacheNames;
 import com.rabinchuk.userservice.dto.CardInfoRequestDto;
 import com.rabinchuk.userservice.dto.CardInfoResponseDto;
 import com.rabinchuk.userservice.dto.CardInfoWithUserIdRequestDto;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
 import com.rabinchuk.userservice.mapper.CardInfoMapper;
 import com.rabinchuk.userservice.model.CardInfo;
 import com.rabinchuk.userservice.model.User;
+import com.rabinchuk.userservice.pagination.KeysetPagination;
 import com.rabinchuk.userservice.repository.CardInfoRepository;
 import com.rabinchuk.userservice.repository.UserRepository;
 import com.rabinchuk.userservice.service.CardInfoService;
+import com.rabinchuk.userservice.versioning.ETags;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,87 +30,105 @@ public class CardInfoServiceImpl implements CardInfoService {
     private final CardInfoRepository cardInfoRepository;
     private final UserRepository userRepository;
     private final CardInfoMapper cardInfoMapper;
-
+    private final CacheInvalidator cacheInvalidator;
+    private final KeysetPagination keysetPagination;
+    private final BatchLoader<Long, CardInfoResponseDto> cardBatchLoader;
 
     @Override
-    public List<CardInfoResponseDto> getAll() {
-        return cardInfoRepository.findAll().stream()
-                .map(cardInfoMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<CardInfoResponseDto> getAll(String cursor, int size) {
+        int pageSize = keysetPagination.pageSize(size);
+        List<CardInfoResponseDto> cards = cardInfoRepository.findDtoPageAfter(keysetPagination.afterId(cursor), keysetPagination.fetchLimit(pageSize));
+        return keysetPagination.toPage(cards, pageSize, CardInfoResponseDto::id);
     }
 
     @Override
+    @Cacheable(value = CacheNames.CARD_CACHE, key = "#id", sync = true)
     public CardInfoResponseDto getById(Long id) {
-        return cardInfoMapper.toDto(cardInfoRepository.findById(id).orElseThrow(
+        return cardBatchLoader.load(id).orElseThrow(
                 () -> new EntityNotFoundException("Card Info with id " + id + " not found!")
-        ));
+        );
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CardInfoResponseDto> getByIds(List<Long> ids) {
-        return cardInfoRepository.findAllById(ids).stream()
-                .map(cardInfoMapper::toDto)
-                .collect(Collectors.toList());
+        return cardInfoRepository.findDtosByIdIn(ids);
     }
 
     @Override
     @Transactional()
     public CardInfoResponseDto addCardInfoToUser(Long userId, CardInfoRequestDto cardInfoRequestDto) {
-        User user = userRepository.findById(userId).orElseThrow(
+        User user = userRepository.findByIdIncrementingVersion(userId).orElseThrow(
                 () -> new EntityNotFoundException("User with id " + userId + " not found!")
         );
         CardInfo cardInfo = cardInfoMapper.toEntity(cardInfoRequestDto);
         user.addCardInfo(cardInfo);
+        CardInfo saved = cardInfoRepository.save(cardInfo);
+        evictCardAfterCommit(saved.getId(), userId);
 
-        return cardInfoMapper.toDto(cardInfoRepository.save(cardInfo));
+        return cardInfoMapper.toDto(saved);
     }
 
     @Override
     @Transactional
     public CardInfoResponseDto create(CardInfoWithUserIdRequestDto cardInfoWithUserIdRequestDto) {
-        User user = userRepository.findById(cardInfoWithUserIdRequestDto.userId()).orElseThrow(
+        User user = userRepository.findByIdIncrementingVersion(cardInfoWithUserIdRequestDto.userId()).orElseThrow(
                 () -> new EntityNotFoundException("User with id " + cardInfoWithUserIdRequestDto.userId() + " not found!")
         );
         CardInfo cardInfo = cardInfoMapper.toEntity(cardInfoWithUserIdRequestDto);
         user.addCardInfo(cardInfo);
+        CardInfo saved = cardInfoRepository.save(cardInfo);
+        evictCardAfterCommit(saved.getId(), user.getId());
 
-        return cardInfoMapper.toDto(cardInfoRepository.save(cardInfo));
+        return cardInfoMapper.toDto(saved);
     }
 
     @Override
     @Transactional
-    public CardInfoResponseDto updateById(Long id, CardInfoWithUserIdRequestDto cardInfoWithUserIdRequestDto) {
+    public CardInfoResponseDto updateById(Long id, CardInfoWithUserIdRequestDto cardInfoWithUserIdRequestDto, Long expectedVersion) {
         CardInfo cardInfo = cardInfoRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Card Info with id " + id + " not found!")
         );
+        ETags.checkVersion(expectedVersion, cardInfo.getVersion());
+        Long ownerId = cardInfo.getUser().getId();
+        userRepository.findByIdIncrementingVersion(ownerId);
         userRepository.findById(cardInfoWithUserIdRequestDto.userId()).orElseThrow(
                 () -> new EntityNotFoundException("User with id " + cardInfoWithUserIdRequestDto.userId() + " not found!")
         );
         cardInfoMapper.updateCardInfoFromDto(cardInfoWithUserIdRequestDto, cardInfo);
+        evictCardAfterCommit(id, ownerId);
 
-        return cardInfoMapper.toDto(cardInfoRepository.save(cardInfo));
+        return cardInfoMapper.toDto(cardInfoRepository.saveAndFlush(cardInfo));
     }
 
     @Override
     @Transactional
     public void deleteById(Long id) {
-        CardInfo cardInfo = cardInfoRepository.findById(id).orElseThrow(
+        Long userId = cardInfoRepository.deleteByIdReturningUserId(id).orElseThrow(
                 () -> new EntityNotFoundException("Card Info with id " + id + " not found!")
         );
-        User user = cardInfo.getUser();
-        user.getCards().remove(cardInfo);
-        cardInfoRepository.deleteById(id);
+        evictCardAfterCommit(id, userId);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(value = CacheNames.USER_CARDS_CACHE, key = "#userId", sync = true)
     public List<CardInfoResponseDto> getCardInfoByUserId(Long userId) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException("User with id " + userId + " not found!")
-        );
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User with id " + userId + " not found!");
+        }
+
+        return cardInfoRepository.findDtosByUserId(userId);
+    }
 
-        return cardInfoRepository.findByUserId(userId).stream()
-                .map(cardInfoMapper::toDto)
-                .collect(Collectors.toList());
+    /**
+     * A card is embedded in its owner's {@link com.rabinchuk.userservice.dto.UserResponseDto} and card list,
+     * so both are evicted together with the card itself.
+     */
+    private void evictCardAfterCommit(Long cardId, Long userId) {
+        cacheInvalidator.evictAfterCommit(CacheNames.CARD_CACHE, cardId);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CARDS_CACHE, userId);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, userId);
     }
 }
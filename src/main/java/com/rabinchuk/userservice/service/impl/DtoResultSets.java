@@ -0,0 +1,49 @@
+package com.rabinchuk.userservice.service.impl;
+
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Reads response DTOs from the columns of the JDBC user and card queries: {@code id, name, surname, birth_date,
+ * email, version} for users and {@code card_id, number, holder, expiration_date, card_version} for cards.
+ */
+final class DtoResultSets {
+
+    private DtoResultSets() {
+    }
+
+    /**
+     * @return the user of the current row, still without its cards
+     */
+    static UserResponseDto.UserResponseDtoBuilder user(ResultSet rs, long userId) throws SQLException {
+        return UserResponseDto.builder()
+                .id(userId)
+                .name(rs.getString("name"))
+                .surname(rs.getString("surname"))
+                .birthDate(rs.getObject("birth_date", LocalDate.class))
+                .email(rs.getString("email"))
+                .version(rs.getLong("version"));
+    }
+
+    /**
+     * @return the card of the current row, or {@code null} for the row of a user without cards
+     */
+    static CardInfoResponseDto card(ResultSet rs, long userId) throws SQLException {
+        long cardId = rs.getLong("card_id");
+        if (rs.wasNull()) {
+            return null;
+        }
+        return CardInfoResponseDto.builder()
+                .id(cardId)
+                .userId(userId)
+                .number(rs.getString("number"))
+                .holder(rs.getString("holder"))
+                .expirationDate(rs.getObject("expiration_date", LocalDate.class))
+                .version(rs.getLong("card_version"))
+                .build();
+    }
+}
@@ -0,0 +1,226 @@
+package com.rabinchuk.userservice.service.impl;
+
+import com.rabinchuk.userservice.cache.CacheInvalidator;
+import com.rabinchuk.userservice.cache.CacheNames;
+import com.rabinchuk.userservice.dto.BulkItemResultDto;
+import com.rabinchuk.userservice.dto.BulkItemStatus;
+import com.rabinchuk.userservice.dto.UserBulkUpdateItemDto;
+import com.rabinchuk.userservice.dto.UserRequestDto;
+import com.rabinchuk.userservice.service.UserBulkService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Bulk user changes through JDBC batches. {@code User.id} is an identity column, which rules out Hibernate
+ * insert batching, so ids for new users are reserved from the sequence up front and inserted explicitly.
+ * Each chunk of {@code app.bulk.batch-size} items runs in its own transaction and its cache evictions are
+ * flushed together after commit.
+ * <p>
+ * Per-item outcomes come from the batch update counts, so the datasource must not use
+ * {@code reWriteBatchedInserts}, which reports {@code SUCCESS_NO_INFO} instead of row counts.
+ */
+@Slf4j
+@Service
+public class UserBulkServiceImpl implements UserBulkService {
+
+    private static final String RESERVE_USER_IDS = """
+            SELECT nextval(pg_get_serial_sequence('users', 'id'))
+            FROM generate_series(1, ?)
+            """;
+
+    private static final String INSERT_USER = """
+            INSERT INTO users (id, name, surname, birth_date, email)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (email) DO NOTHING
+            """;
+
+    private static final String UPDATE_USER = """
+            UPDATE users
+            SET name = ?, surname = ?, birth_date = ?, email = ?, version = version + 1
+            WHERE id = ?
+              AND NOT EXISTS (SELECT 1 FROM users other WHERE other.email = ? AND other.id <> ?)
+            """;
+
+    private static final String DELETE_USERS = """
+            WITH deleted AS (
+                DELETE FROM users
+                WHERE id = ANY(?)
+                RETURNING id, email
+            )
+            SELECT d.id, d.email, c.id AS card_id
+            FROM deleted d
+            LEFT JOIN card_info c ON c.user_id = d.id
+            """;
+
+    private static final String SELECT_EMAILS = "SELECT id, email FROM users WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final int batchSize;
+
+    public UserBulkServiceImpl(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               CacheInvalidator cacheInvalidator,
+                               @Value("${app.bulk.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheInvalidator = cacheInvalidator;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<BulkItemResultDto> createAll(List<UserRequestDto> users) {
+        return inChunks(users, this::createChunk);
+    }
+
+    @Override
+    public List<BulkItemResultDto> updateAll(List<UserBulkUpdateItemDto> users) {
+        return inChunks(users, this::updateChunk);
+    }
+
+    @Override
+    public List<BulkItemResultDto> deleteAll(List<Long> ids) {
+        return inChunks(ids, this::deleteChunk);
+    }
+
+    private List<BulkItemResultDto> createChunk(int offset, List<UserRequestDto> users) {
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_USER_IDS, Long.class, users.size());
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            UserRequestDto user = users.get(i);
+            rows.add(new Object[]{ids.get(i), user.name(), user.surname(), user.birthDate(), user.email()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_USER, rows);
+
+        List<BulkItemResultDto> results = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            UserRequestDto user = users.get(i);
+            if (counts[i] > 0) {
+                evictUserAfterCommit(ids.get(i), user.email());
+                results.add(result(offset + i, ids.get(i), BulkItemStatus.CREATED, null));
+            } else {
+                results.add(result(offset + i, null, BulkItemStatus.CONFLICT, "User already exists with email: " + user.email()));
+            }
+        }
+        return results;
+    }
+
+    private List<BulkItemResultDto> updateChunk(int offset, List<UserBulkUpdateItemDto> items) {
+        Map<Long, String> currentEmails = findEmails(items.stream().map(UserBulkUpdateItemDto::id).toList());
+
+        List<Integer> found = new ArrayList<>(items.size());
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            UserBulkUpdateItemDto item = items.get(i);
+            if (currentEmails.containsKey(item.id())) {
+                UserRequestDto user = item.user();
+                found.add(i);
+                rows.add(new Object[]{user.name(), user.surname(), user.birthDate(), user.email(), item.id(), user.email(), item.id()});
+            }
+        }
+        int[] counts = rows.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(UPDATE_USER, rows);
+
+        BulkItemResultDto[] results = new BulkItemResultDto[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            Long id = items.get(i).id();
+            results[i] = result(offset + i, id, BulkItemStatus.NOT_FOUND, "User not found with id: " + id);
+        }
+        for (int j = 0; j < found.size(); j++) {
+            int i = found.get(j);
+            UserBulkUpdateItemDto item = items.get(i);
+            if (counts[j] > 0) {
+                cacheInvalidator.evictAfterCommit(CacheNames.USER_ID_CACHE, currentEmails.get(item.id()));
+                evictUserAfterCommit(item.id(), item.user().email());
+                results[i] = result(offset + i, item.id(), BulkItemStatus.UPDATED, null);
+            } else {
+                results[i] = result(offset + i, item.id(), BulkItemStatus.CONFLICT, "User already exists with email: " + item.user().email());
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Deletes the whole chunk in one statement; cards go with their users through {@code ON DELETE CASCADE}
+     * and are listed from the snapshot taken before the delete so that they can be evicted.
+     */
+    private List<BulkItemResultDto> deleteChunk(int offset, List<Long> ids) {
+        Map<Long, String> deletedEmails = new HashMap<>();
+        jdbcTemplate.query(DELETE_USERS, rs -> {
+            deletedEmails.put(rs.getLong("id"), rs.getString("email"));
+            Long cardId = rs.getObject("card_id", Long.class);
+            if (cardId != null) {
+                cacheInvalidator.evictAfterCommit(CacheNames.CARD_CACHE, cardId);
+            }
+        }, (Object) ids.stream().distinct().toArray(Long[]::new));
+
+        List<BulkItemResultDto> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            String email = deletedEmails.remove(id);
+            if (email != null) {
+                evictUserAfterCommit(id, email);
+                results.add(result(offset + i, id, BulkItemStatus.DELETED, null));
+            } else {
+                results.add(result(offset + i, id, BulkItemStatus.NOT_FOUND, "User not found with id: " + id));
+            }
+        }
+        return results;
+    }
+
+    private Map<Long, String> findEmails(List<Long> ids) {
+        Map<Long, String> emails = new HashMap<>();
+        jdbcTemplate.query(SELECT_EMAILS, rs -> {
+            emails.put(rs.getLong("id"), rs.getString("email"));
+        }, (Object) ids.toArray(Long[]::new));
+        return emails;
+    }
+
+    /**
+     * Applies {@code operation} to consecutive chunks, each in its own transaction. A chunk that fails as a whole,
+     * for example on a constraint violation raced in by a concurrent writer or on commit, is rolled back and reported
+     * as failed; the chunks before it stay committed.
+     */
+    private <T> List<BulkItemResultDto> inChunks(List<T> items, BiFunction<Integer, List<T>, List<BulkItemResultDto>> operation) {
+        List<BulkItemResultDto> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += batchSize) {
+            int offset = from;
+            List<T> chunk = items.subList(from, Math.min(from + batchSize, items.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> operation.apply(offset, chunk)));
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Bulk chunk of {} items at offset {} failed", chunk.size(), offset, e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(result(offset + i, null, BulkItemStatus.FAILED, e.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private static BulkItemResultDto result(int index, Long id, BulkItemStatus status, String errorMessage) {
+        return BulkItemResultDto.builder()
+                .index(index)
+                .id(id)
+                .status(status)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    private void evictUserAfterCommit(Long id, String email) {
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, id);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CARDS_CACHE, id);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_ID_CACHE, email);
+    }
+}
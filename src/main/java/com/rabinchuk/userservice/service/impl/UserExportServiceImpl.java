@@ -0,0 +1,141 @@
+package com.rabinchuk.userservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import com.rabinchuk.userservice.service.UserExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams users straight from a forward-only cursor: the driver holds at most {@code fetchSize} rows and only
+ * the user currently being assembled is kept in memory. A failed write (client disconnect) cancels the query.
+ */
+@Slf4j
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final String EXPORT_QUERY = """
+            SELECT u.id, u.name, u.surname, u.birth_date, u.email, u.version,
+                   c.id AS card_id, c.number, c.holder, c.expiration_date, c.version AS card_version
+            FROM users u
+            LEFT JOIN card_info c ON c.user_id = u.id
+            ORDER BY u.id, c.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int flushEveryUsers;
+    private final int bufferSize;
+
+    public UserExportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize,
+                                 @Value("${app.export.flush-every-users:500}") int flushEveryUsers,
+                                 @Value("${app.export.buffer-size:65536}") int bufferSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.flushEveryUsers = flushEveryUsers;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Runs in a read-only transaction because the PostgreSQL driver only honours the fetch size
+     * with auto-commit off; otherwise it materializes the whole result set.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) throws IOException {
+        BufferedOutputStream bufferedOut = new BufferedOutputStream(out, bufferSize);
+        UserLineWriter lineWriter = new UserLineWriter(bufferedOut);
+        try {
+            jdbcTemplate.query(this::prepareExportStatement, lineWriter);
+            lineWriter.finish();
+        } catch (UncheckedIOException e) {
+            log.info("User export aborted after {} users: {}", lineWriter.writtenUsers, e.getCause().getMessage());
+            throw e.getCause();
+        }
+        bufferedOut.flush();
+    }
+
+    private PreparedStatement prepareExportStatement(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    /**
+     * Rows arrive ordered by user id, so a user is complete as soon as the next user's first row is read.
+     */
+    private class UserLineWriter implements RowCallbackHandler {
+
+        private final OutputStream out;
+
+        private UserResponseDto.UserResponseDtoBuilder currentUser;
+        private Long currentUserId;
+        private List<CardInfoResponseDto> currentCards;
+        private long writtenUsers;
+
+        UserLineWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long userId = rs.getLong("id");
+            if (currentUserId == null || currentUserId != userId) {
+                try {
+                    finish();
+                } catch (UncheckedIOException e) {
+                    rs.getStatement().cancel();
+                    throw e;
+                }
+                startUser(rs, userId);
+            }
+
+            CardInfoResponseDto card = DtoResultSets.card(rs, userId);
+            if (card != null) {
+                currentCards.add(card);
+            }
+        }
+
+        void finish() {
+            if (currentUser == null) {
+                return;
+            }
+            try {
+                out.write(objectMapper.writeValueAsBytes(currentUser.cards(currentCards).build()));
+                out.write('\n');
+                if (++writtenUsers % flushEveryUsers == 0) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            currentUser = null;
+        }
+
+        private void startUser(ResultSet rs, long userId) throws SQLException {
+            currentUserId = userId;
+            currentCards = new ArrayList<>();
+            currentUser = DtoResultSets.user(rs, userId);
+        }
+    }
+}
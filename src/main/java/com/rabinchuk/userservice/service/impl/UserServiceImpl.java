@@ -1,20 +1,31 @@
 package com.rabinchuk.userservice.service.impl;
 
+import com.rabinchuk.userservice.batching.BatchLoader;
+import com.rabinchuk.userservice.cache.CacheInvalidator;
+import com.rabinchuk.userservice.cache.CacheNames;
+import com.rabinchuk.userservice.cache.TwoLevelCacheManager;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
 import com.rabinchuk.userservice.dto.UserRequestDto;
 import com.rabinchuk.userservice.dto.UserResponseDto;
 import com.rabinchuk.userservice.mapper.UserMapper;
 import com.rabinchuk.userservice.model.User;
+import com.rabinchuk.userservice.pagination.KeysetPagination;
+import com.rabinchuk.userservice.pagination.KeysetPagination.RankedKey;
+import com.rabinchuk.userservice.repository.DeletedUser;
 import com.rabinchuk.userservice.repository.UserRepository;
+import com.rabinchuk.userservice.search.SearchQuery;
 import com.rabinchuk.userservice.service.UserService;
+import com.rabinchuk.userservice.versioning.ETags;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,61 +34,107 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheInvalidator cacheInvalidator;
+    private final KeysetPagination keysetPagination;
+    private final BatchLoader<Long, UserResponseDto> userBatchLoader;
 
     @Override
-    public List<UserResponseDto> getAll() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<UserResponseDto> getAll(String cursor, int size) {
+        int pageSize = keysetPagination.pageSize(size);
+        List<Long> ids = userRepository.findIdsAfter(keysetPagination.afterId(cursor), keysetPagination.fetchLimit(pageSize));
+        CursorPageResponseDto<Long> idPage = keysetPagination.toPage(ids, pageSize, Function.identity());
+
+        return new CursorPageResponseDto<>(userRepository.findDtosByIdIn(idPage.content()), idPage.nextCursor());
     }
 
     @Override
-    @Cacheable(value = "USER_CACHE", key = "#id")
+    @Cacheable(value = CacheNames.USER_CACHE, key = "#id", sync = true)
     public UserResponseDto getById(Long id) {
-        return userMapper.toDto(userRepository.findById(id).orElseThrow(
+        return userBatchLoader.load(id).orElseThrow(
                 () -> new EntityNotFoundException("User not found with id: " + id)
-        ));
+        );
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserResponseDto> getByIds(List<Long> ids) {
-        return userRepository.findAllById(ids).stream()
-                .map(userMapper::toDto)
-                .collect(Collectors.toList());
+        return cacheManager.getTwoLevelCache(CacheNames.USER_CACHE).getAll(ids, missingIds ->
+                userRepository.findDtosByIdIn(missingIds).stream()
+                        .collect(Collectors.toMap(UserResponseDto::id, Function.identity())));
     }
 
     @Override
+    @Transactional
     public UserResponseDto create(UserRequestDto userRequestDto) {
-        User user = userMapper.toEntity(userRequestDto);
-        return userMapper.toDto(userRepository.save(user));
+        User user = userRepository.save(userMapper.toEntity(userRequestDto));
+        evictUserAfterCommit(user.getId(), user.getEmail());
+
+        return userMapper.toDto(user);
     }
 
     @Override
     @Transactional
-    @CachePut(value = "USER_CACHE", key = "#id")
-    public UserResponseDto updateById(Long id, UserRequestDto userRequestDto) {
+    public UserResponseDto updateById(Long id, UserRequestDto userRequestDto, Long expectedVersion) {
         User user = userRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("User not found with id: " + id)
         );
+        ETags.checkVersion(expectedVersion, user.getVersion());
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_ID_CACHE, user.getEmail());
         userMapper.updateUserFromDto(userRequestDto, user);
+        User saved = userRepository.saveAndFlush(user);
+        evictUserAfterCommit(saved.getId(), saved.getEmail());
 
-        return userMapper.toDto(userRepository.save(user));
+        return userMapper.toDto(saved);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "USER_CACHE", key = "#id")
     public void deleteById(Long id) {
-        userRepository.findById(id).orElseThrow(
+        DeletedUser deleted = userRepository.deleteByIdReturningCards(id).orElseThrow(
                 () -> new EntityNotFoundException("User not found with id: " + id)
         );
-        userRepository.deleteById(id);
+        for (Long cardId : deleted.cardIds()) {
+            cacheInvalidator.evictAfterCommit(CacheNames.CARD_CACHE, cardId);
+        }
+        evictUserAfterCommit(id, deleted.email());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponseDto getUserByEmail(String email) {
-        return userMapper.toDto(userRepository.findUserByEmail(email).orElseThrow(
-                () -> new EntityNotFoundException("User not found with email: " + email)
-        ));
+        Long id = cacheManager.getTwoLevelCache(CacheNames.USER_ID_CACHE).get(email, () ->
+                userRepository.findIdByEmail(email).orElseThrow(
+                        () -> new EntityNotFoundException("User not found with email: " + email)
+                ));
+        return cacheManager.getTwoLevelCache(CacheNames.USER_CACHE).get(id, () -> getById(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<UserResponseDto> search(String query, String cursor, int size) {
+        SearchQuery searchQuery = SearchQuery.parse(query);
+        int pageSize = keysetPagination.pageSize(size);
+        RankedKey after = keysetPagination.afterRankedKey(cursor);
+        List<RankedKey> ranking = userRepository.searchRanked(searchQuery.text(), searchQuery.prefixPattern(),
+                        after.score(), after.id(), keysetPagination.fetchLimit(pageSize).max()).stream()
+                .map(row -> new RankedKey(row.get("score", Float.class), row.get("id", Long.class)))
+                .toList();
+        CursorPageResponseDto<RankedKey> page = keysetPagination.toRankedPage(ranking, pageSize, Function.identity());
+
+        Map<Long, UserResponseDto> users = userRepository.findDtosByIdIn(page.content().stream().map(RankedKey::id).toList()).stream()
+                .collect(Collectors.toMap(UserResponseDto::id, Function.identity()));
+        List<UserResponseDto> content = page.content().stream()
+                .map(key -> users.get(key.id()))
+                .filter(Objects::nonNull)
+                .toList();
+        return new CursorPageResponseDto<>(content, page.nextCursor());
+    }
+
+    private void evictUserAfterCommit(Long id, String email) {
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, id);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CARDS_CACHE, id);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_ID_CACHE, email);
     }
 }
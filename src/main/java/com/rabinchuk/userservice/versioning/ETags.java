@@ -0,0 +1,57 @@
+package com.rabinchuk.userservice.versioning;
+
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Strong entity tags built from {@code @Version} columns. A user's version also changes with its cards,
+ * so one number covers the whole user representation. A card list has no version of its own and is tagged
+ * with a hash of its card ids and versions, which changes when a card is added, changed or removed.
+ */
+public final class ETags {
+
+    private static final String ANY = "*";
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String ofCards(List<CardInfoResponseDto> cards) {
+        long hash = 1;
+        for (CardInfoResponseDto card : cards) {
+            hash = 31 * hash + Objects.hashCode(card.id());
+            hash = 31 * hash + Objects.hashCode(card.version());
+        }
+        return "\"" + cards.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Returns the version required by an {@code If-Match} header, or {@code null} when the header is absent or {@code *}.
+     * Weak, malformed and multi-valued tags can never match a strong tag, so they fail the precondition.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+        }
+    }
+
+    public static void checkVersion(Long expectedVersion, Long currentVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + of(currentVersion));
+        }
+    }
+}
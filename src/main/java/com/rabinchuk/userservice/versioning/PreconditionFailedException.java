@@ -0,0 +1,8 @@
+package com.rabinchuk.userservice.versioning;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
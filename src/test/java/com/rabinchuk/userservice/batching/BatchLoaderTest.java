@@ -0,0 +1,118 @@
+package com.rabinchuk.userservice.batching;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchLoaderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private BatchLoader<Long, String> loader;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        loader.destroy();
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups within the window share one batch")
+    void testCoalescesConcurrentLookups() throws Exception {
+        loader = createLoader(Duration.ofMillis(200), 100, () -> false, this::findValues);
+
+        List<Future<Optional<String>>> results = List.of(
+                callers.submit(() -> loader.load(1L)),
+                callers.submit(() -> loader.load(2L)),
+                callers.submit(() -> loader.load(2L)),
+                callers.submit(() -> loader.load(3L)));
+
+        assertThat(results.get(0).get(5, TimeUnit.SECONDS)).contains("value-1");
+        assertThat(results.get(1).get(5, TimeUnit.SECONDS)).contains("value-2");
+        assertThat(results.get(2).get(5, TimeUnit.SECONDS)).contains("value-2");
+        assertThat(results.get(3).get(5, TimeUnit.SECONDS)).contains("value-3");
+        assertThat(batches).containsExactly(Set.of(1L, 2L, 3L));
+
+        DistributionSummary batchSizes = meterRegistry.get("batch.loader.size").tag("loader", "test").summary();
+        assertThat(batchSizes.count()).isEqualTo(1);
+        assertThat(batchSizes.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Full batch is dispatched before the window ends")
+    void testDispatchesFullBatch() throws Exception {
+        loader = createLoader(Duration.ofMinutes(1), 2, () -> false, this::findValues);
+
+        Future<Optional<String>> first = callers.submit(() -> loader.load(1L));
+        Future<Optional<String>> second = callers.submit(() -> loader.load(2L));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains("value-1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).contains("value-2");
+        assertThat(batches).containsExactly(Set.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Key missing from the batch result loads as empty")
+    void testMissingKey() {
+        loader = createLoader(Duration.ofMillis(1), 100, () -> false, ids -> Map.of());
+
+        assertThat(loader.load(1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Batch failure is rethrown to the caller")
+    void testBatchFailure() {
+        loader = createLoader(Duration.ofMillis(1), 100, () -> false, ids -> {
+            throw new IllegalStateException("database down");
+        });
+
+        assertThatThrownBy(() -> loader.load(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database down");
+    }
+
+    @Test
+    @DisplayName("Bypassed lookup loads on the caller's thread")
+    void testBypass() {
+        Thread caller = Thread.currentThread();
+        List<Thread> loadingThreads = new CopyOnWriteArrayList<>();
+        loader = createLoader(Duration.ofMinutes(1), 100, () -> true, ids -> {
+            loadingThreads.add(Thread.currentThread());
+            return findValues(ids);
+        });
+
+        assertThat(loader.load(1L)).contains("value-1");
+        assertThat(loadingThreads).containsExactly(caller);
+        assertThat(meterRegistry.get("batch.loader.size").summary().count()).isZero();
+    }
+
+    private BatchLoader<Long, String> createLoader(Duration window, int maxBatchSize, BooleanSupplier bypass,
+                                                   Function<Set<Long>, Map<Long, String>> batchFunction) {
+        return new BatchLoader<>("test", batchFunction, new BatchLoaderSettings(window, maxBatchSize), bypass, meterRegistry);
+    }
+
+    private Map<Long, String> findValues(Set<Long> ids) {
+        batches.add(Set.copyOf(ids));
+        return ids.stream().collect(Collectors.toMap(Function.identity(), id -> "value-" + id));
+    }
+}
@@ -0,0 +1,60 @@
+package com.rabinchuk.userservice.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveTtlFunctionTest {
+
+    private final FrequencySketch frequencySketch = new FrequencySketch(1024);
+    private final AdaptiveTtlFunction ttlFunction = new AdaptiveTtlFunction(CacheNames.USER_CACHE, frequencySketch,
+            Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofHours(4), 3);
+
+    @Test
+    @DisplayName("Key read at the pivot frequency gets the base TTL")
+    void testPivotFrequency() {
+        read(1L, 3);
+
+        assertThat(ttlFunction.getTimeToLive(1L, "value")).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Hot keys live longer, cold keys shorter, within bounds")
+    void testBounds() {
+        read(1L, 7);
+        read(2L, 1000);
+
+        assertThat(ttlFunction.getTimeToLive(1L, "value")).isEqualTo(Duration.ofHours(2));
+        assertThat(ttlFunction.getTimeToLive(2L, "value")).isEqualTo(Duration.ofHours(4));
+        assertThat(ttlFunction.getTimeToLive(3L, "value")).isEqualTo(Duration.ofMinutes(15));
+    }
+
+    @Test
+    @DisplayName("Same key in different caches is counted separately")
+    void testCachesAreSeparate() {
+        read(1L, 5);
+
+        assertThat(frequencySketch.frequency(CacheNames.USER_CACHE, 1L)).isEqualTo(5);
+        assertThat(frequencySketch.frequency(CacheNames.CARD_CACHE, 1L)).isZero();
+    }
+
+    @Test
+    @DisplayName("Counts are halved once the sample window is full")
+    void testAging() {
+        read(1L, 100);
+        for (long key = 0; key < 10 * 1024 - 100; key++) {
+            frequencySketch.increment(CacheNames.CARD_CACHE, key);
+        }
+
+        assertThat(frequencySketch.frequency(CacheNames.USER_CACHE, 1L)).isBetween(50, 60);
+    }
+
+    private void read(Long key, int times) {
+        for (int i = 0; i < times; i++) {
+            frequencySketch.increment(CacheNames.USER_CACHE, key);
+        }
+    }
+}
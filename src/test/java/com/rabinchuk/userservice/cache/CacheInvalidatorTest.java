@@ -0,0 +1,93 @@
+package com.rabinchuk.userservice.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheInvalidatorTest {
+
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private TwoLevelCache userCache;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private CacheInvalidator cacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheInvalidator = new CacheInvalidator(cacheManager, taskScheduler, Duration.ZERO);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Keys collected in a transaction are evicted together after commit")
+    void testEvictAfterCommit() {
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_CACHE)).thenReturn(userCache);
+
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, 1L);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, 2L);
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, 1L);
+        verify(userCache, never()).evictAll(any());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        verify(userCache).evictAll(Set.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Nothing is evicted after rollback")
+    void testNoEvictionOnRollback() {
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, 1L);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(cacheManager, never()).getTwoLevelCache(CacheNames.USER_CACHE);
+    }
+
+    @Test
+    @DisplayName("Keys are evicted again after the re-eviction delay")
+    void testReEvictionAfterDelay() {
+        cacheInvalidator = new CacheInvalidator(cacheManager, taskScheduler, Duration.ofSeconds(5));
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_CACHE)).thenReturn(userCache);
+
+        cacheInvalidator.evictAfterCommit(CacheNames.USER_CACHE, 1L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<Runnable> reEviction = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(reEviction.capture(), any(Instant.class));
+        reEviction.getValue().run();
+
+        verify(userCache, times(2)).evictAll(Set.of(1L));
+    }
+}
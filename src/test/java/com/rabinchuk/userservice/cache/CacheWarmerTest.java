@@ -0,0 +1,74 @@
+package com.rabinchuk.userservice.cache;
+
+import com.rabinchuk.userservice.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheWarmerTest {
+
+    @Mock
+    private HotKeyTracker userHotKeyTracker;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheWarmer, "enabled", true);
+        ReflectionTestUtils.setField(cacheWarmer, "warmUpSize", 5);
+        ReflectionTestUtils.setField(cacheWarmer, "batchSize", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "timeBudget", Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("Hot users are loaded in chunks")
+    void testWarmUpInChunks() {
+        when(userHotKeyTracker.hottestKeys(5)).thenReturn(List.of("1", "2", "3", "4", "5"));
+
+        cacheWarmer.run(null);
+
+        verify(userService).getByIds(List.of(1L, 2L));
+        verify(userService).getByIds(List.of(3L, 4L));
+        verify(userService).getByIds(List.of(5L));
+    }
+
+    @Test
+    @DisplayName("Warm-up stops when the time budget is exhausted")
+    void testTimeBudget() {
+        ReflectionTestUtils.setField(cacheWarmer, "timeBudget", Duration.ZERO);
+        when(userHotKeyTracker.hottestKeys(5)).thenReturn(List.of("1", "2"));
+
+        cacheWarmer.run(null);
+
+        verify(userService, never()).getByIds(any());
+    }
+
+    @Test
+    @DisplayName("Warm-up failure does not prevent startup")
+    void testFailureIsSwallowed() {
+        doThrow(new IllegalStateException("Redis is down")).when(userHotKeyTracker).hottestKeys(5);
+
+        cacheWarmer.run(null);
+
+        verify(userService, never()).getByIds(any());
+    }
+}
@@ -0,0 +1,90 @@
+package com.rabinchuk.userservice.cache;
+
+import com.rabinchuk.userservice.AbstractIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RedisSharedCacheAccessorIntegrationTest extends AbstractIntegrationTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    private RedisSharedCacheAccessor sharedAccessor;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().entryTtl(TTL))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        sharedAccessor = new RedisSharedCacheAccessor(
+                (RedisCache) redisCacheManager.getCache("shared-accessor-test"), redisConnectionFactory);
+        key = UUID.randomUUID().toString();
+    }
+
+    @Test
+    @DisplayName("Lease is exclusive until its holder releases it")
+    void testLeaseIsExclusive() {
+        String token = sharedAccessor.tryAcquireLease(key, Duration.ofMinutes(1));
+
+        assertThat(token).isNotNull();
+        assertThat(sharedAccessor.tryAcquireLease(key, Duration.ofMinutes(1))).isNull();
+
+        sharedAccessor.releaseLease(key, token);
+        String next = sharedAccessor.tryAcquireLease(key, Duration.ofMinutes(1));
+        assertThat(next).isNotNull().isNotEqualTo(token);
+        sharedAccessor.releaseLease(key, next);
+    }
+
+    @Test
+    @DisplayName("Release with another token leaves the lease in place")
+    void testReleaseWithForeignTokenKeepsLease() {
+        String token = sharedAccessor.tryAcquireLease(key, Duration.ofMinutes(1));
+
+        sharedAccessor.releaseLease(key, "expired-holder");
+
+        assertThat(sharedAccessor.tryAcquireLease(key, Duration.ofMinutes(1))).isNull();
+        sharedAccessor.releaseLease(key, token);
+    }
+
+    @Test
+    @DisplayName("Expired lease can be acquired again")
+    void testLeaseExpires() throws InterruptedException {
+        assertThat(sharedAccessor.tryAcquireLease(key, Duration.ofMillis(100))).isNotNull();
+
+        Thread.sleep(300);
+
+        String token = sharedAccessor.tryAcquireLease(key, Duration.ofMinutes(1));
+        assertThat(token).isNotNull();
+        sharedAccessor.releaseLease(key, token);
+    }
+
+    @Test
+    @DisplayName("Read reports the remaining TTL of the entry")
+    void testGetWithTtl() {
+        sharedAccessor.putAll(Map.of(key, "value"));
+
+        SharedCacheEntry entry = sharedAccessor.getWithTtl(key);
+
+        assertThat(entry.value()).isEqualTo("value");
+        assertThat(entry.ttl()).isPositive().isLessThanOrEqualTo(TTL);
+        assertThat(sharedAccessor.getWithTtl(UUID.randomUUID().toString())).isNull();
+        sharedAccessor.evictAll(List.of(key));
+    }
+}
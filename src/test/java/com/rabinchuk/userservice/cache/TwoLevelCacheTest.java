@@ -0,0 +1,291 @@
+package com.rabinchuk.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoLevelCacheTest {
+
+    @Mock
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    private ConcurrentMapCache redisCache;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisCache = new ConcurrentMapCache(CacheNames.USER_CACHE, false);
+        cache = createCache(new SimpleSharedCacheAccessor(redisCache), Duration.ofSeconds(1), 0, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Local hit does not touch the shared cache")
+    void testLocalHit() {
+        cache.get(1L, () -> "value");
+        redisCache.clear();
+
+        assertThat(cache.get(1L, () -> "reloaded")).isEqualTo("value");
+    }
+
+    @Test
+    @DisplayName("Shared hit populates the local cache")
+    void testSharedHitPopulatesLocal() {
+        redisCache.put(1L, "value");
+
+        assertThat(cache.get(1L).get()).isEqualTo("value");
+        redisCache.clear();
+        assertThat(cache.get(1L).get()).isEqualTo("value");
+    }
+
+    @Test
+    @DisplayName("Put publishes invalidation for other nodes")
+    void testPutPublishesInvalidation() {
+        cache.put(1L, "value");
+
+        assertThat(redisCache.get(1L).get()).isEqualTo("value");
+        verify(invalidationPublisher).publishEvict(CacheNames.USER_CACHE, 1L);
+    }
+
+    @Test
+    @DisplayName("Evict removes both levels and publishes invalidation")
+    void testEvict() {
+        cache.put(1L, "value");
+
+        cache.evict(1L);
+
+        assertThat(redisCache.get(1L)).isNull();
+        assertThat(cache.get(1L)).isNull();
+        verify(invalidationPublisher, times(2)).publishEvict(CacheNames.USER_CACHE, 1L);
+    }
+
+    @Test
+    @DisplayName("Remote invalidation drops only the local copy")
+    void testEvictLocal() {
+        cache.put(1L, "value");
+        redisCache.put(1L, "updated");
+
+        cache.evictLocal("1");
+
+        assertThat(cache.get(1L).get()).isEqualTo("updated");
+    }
+
+    @Test
+    @DisplayName("Concurrent misses for one key share a single load")
+    void testSingleFlight() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1L, () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "value";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Loader failure is reported as value retrieval failure and nothing is cached")
+    void testLoaderFailure() {
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(redisCache.get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Not found is cached as a tombstone and rethrown without loading")
+    void testNegativeCaching() {
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            throw new EntityNotFoundException("User not found with id: 1");
+        };
+
+        assertThatThrownBy(() -> cache.get(1L, loader)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> cache.get(1L, loader))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("User not found with id: 1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(redisCache.get(1L).get()).isInstanceOf(CacheTombstone.class);
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Miss without the lease waits for the value loaded by the lease holder")
+    void testLeaseRefusedWaitsForLeaseHolder() {
+        LeasingSharedCacheAccessor sharedAccessor = new LeasingSharedCacheAccessor(redisCache);
+        sharedAccessor.heldElsewhere = true;
+        sharedAccessor.onLeaseRefused = () -> redisCache.put(1L, "loaded elsewhere");
+        cache = createCache(sharedAccessor, Duration.ofSeconds(5), 0, Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        String value = cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return "value";
+        });
+
+        assertThat(value).isEqualTo("loaded elsewhere");
+        assertThat(loads).hasValue(0);
+        assertThat(sharedAccessor.releasedTokens).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Miss without the lease loads directly once the lease time is over")
+    void testLeaseTimeoutFallsBackToDirectLoad() {
+        LeasingSharedCacheAccessor sharedAccessor = new LeasingSharedCacheAccessor(redisCache);
+        sharedAccessor.heldElsewhere = true;
+        cache = createCache(sharedAccessor, Duration.ofMillis(50), 0, Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        String value = cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return "value";
+        });
+
+        assertThat(value).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+        assertThat(sharedAccessor.leaseAttempts.get()).isGreaterThan(1);
+        assertThat(sharedAccessor.releasedTokens).isEmpty();
+        assertThat(redisCache.get(1L).get()).isEqualTo("value");
+    }
+
+    @Test
+    @DisplayName("Shared hit close to expiry is refreshed once in the background under the lease")
+    void testRefreshAhead() {
+        LeasingSharedCacheAccessor sharedAccessor = new LeasingSharedCacheAccessor(redisCache);
+        Queue<Runnable> refreshes = new ConcurrentLinkedQueue<>();
+        cache = createCache(sharedAccessor, Duration.ofSeconds(1), 1.0, refreshes::add);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            Thread.sleep(5);
+            return "value-" + loads.incrementAndGet();
+        };
+        cache.get(1L, loader);
+        sharedAccessor.ttl = Duration.ofNanos(1);
+
+        cache.evictLocal("1");
+        assertThat(cache.get(1L, loader)).isEqualTo("value-1");
+        cache.evictLocal("1");
+        assertThat(cache.get(1L, loader)).isEqualTo("value-1");
+
+        assertThat(refreshes).hasSize(1);
+        assertThat(loads).hasValue(1);
+        refreshes.poll().run();
+        assertThat(loads).hasValue(2);
+        assertThat(redisCache.get(1L).get()).isEqualTo("value-2");
+        assertThat(sharedAccessor.releasedTokens).hasSize(2);
+
+        cache.evictLocal("1");
+        assertThat(cache.get(1L, loader)).isEqualTo("value-2");
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Statistics count hits per level, misses and evictions")
+    void testStatistics() {
+        cache.get(1L, () -> "value");
+        cache.get(1L, () -> "value");
+        redisCache.put(2L, "shared");
+        cache.get(2L);
+        cache.evict(1L);
+
+        CacheStatistics statistics = cache.statistics();
+
+        assertThat(statistics.requests()).isEqualTo(3);
+        assertThat(statistics.localHits()).isEqualTo(1);
+        assertThat(statistics.sharedHits()).isEqualTo(1);
+        assertThat(statistics.misses()).isEqualTo(1);
+        assertThat(statistics.loads()).isEqualTo(1);
+        assertThat(statistics.evictions()).isEqualTo(1);
+    }
+
+    private TwoLevelCache createCache(SharedCacheAccessor sharedAccessor, Duration leaseTime, double refreshAheadBeta,
+                                      Executor refreshExecutor) {
+        return new TwoLevelCache(redisCache, Caffeine.newBuilder().maximumSize(100).build(),
+                sharedAccessor, invalidationPublisher,
+                new TwoLevelCacheSettings(100, Duration.ofMinutes(1), leaseTime, Duration.ofMillis(10), refreshAheadBeta),
+                refreshExecutor, key -> {},
+                new TwoLevelCacheMetrics(CacheNames.USER_CACHE, new SimpleMeterRegistry()));
+    }
+
+    /**
+     * Shared level with a lease that another node may hold and entries that report a fixed remaining TTL.
+     */
+    private static class LeasingSharedCacheAccessor extends SimpleSharedCacheAccessor {
+
+        private final Cache cache;
+        private final AtomicInteger leaseAttempts = new AtomicInteger();
+        private final List<String> releasedTokens = new ArrayList<>();
+        private volatile boolean heldElsewhere;
+        private volatile Runnable onLeaseRefused = () -> {};
+        private volatile Duration ttl;
+
+        LeasingSharedCacheAccessor(Cache cache) {
+            super(cache);
+            this.cache = cache;
+        }
+
+        @Override
+        public SharedCacheEntry getWithTtl(Object key) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            return wrapper == null ? null : new SharedCacheEntry(wrapper.get(), ttl);
+        }
+
+        @Override
+        public String tryAcquireLease(Object key, Duration leaseTime) {
+            int attempt = leaseAttempts.incrementAndGet();
+            if (heldElsewhere) {
+                onLeaseRefused.run();
+                return null;
+            }
+            return "token-" + attempt;
+        }
+
+        @Override
+        public synchronized void releaseLease(Object key, String token) {
+            releasedTokens.add(token);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rabinchuk.userservice.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Compares value size and encode/decode time of the cache serializers.
+ * Run with {@code mvn test -Dtest=CompactRedisSerializerBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class CompactRedisSerializerBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    @Test
+    void compareSerializers() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        RedisSerializer<UserResponseDto> json = new Jackson2JsonRedisSerializer<>(objectMapper, UserResponseDto.class);
+        RedisSerializer<UserResponseDto> compact = new CompactRedisSerializer<>(DtoCodecs.USER, 512);
+
+        for (int cards : new int[]{0, 5, 50}) {
+            UserResponseDto user = CompactRedisSerializerTest.createUser(cards);
+            report("json", cards, json, user);
+            report("compact", cards, compact, user);
+        }
+    }
+
+    private void report(String name, int cards, RedisSerializer<UserResponseDto> serializer, UserResponseDto user) {
+        byte[] bytes = serializer.serialize(user);
+        run(serializer, user, bytes, WARMUP_ITERATIONS);
+
+        long encodeStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            serializer.serialize(user);
+        }
+        long encodeNanos = (System.nanoTime() - encodeStart) / MEASURED_ITERATIONS;
+
+        long decodeStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long decodeNanos = (System.nanoTime() - decodeStart) / MEASURED_ITERATIONS;
+
+        System.out.printf("%-8s cards=%-3d size=%6d B  encode=%6d ns/op  decode=%6d ns/op%n",
+                name, cards, bytes.length, encodeNanos, decodeNanos);
+    }
+
+    private void run(RedisSerializer<UserResponseDto> serializer, UserResponseDto user, byte[] bytes, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            serializer.serialize(user);
+            serializer.deserialize(bytes);
+        }
+    }
+}
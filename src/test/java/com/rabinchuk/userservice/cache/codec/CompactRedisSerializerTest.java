@@ -0,0 +1,89 @@
+package com.rabinchuk.userservice.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer<UserResponseDto> serializer = new CompactRedisSerializer<>(DtoCodecs.USER, 512);
+
+    @Test
+    @DisplayName("User with cards survives a round trip")
+    void testRoundTrip() {
+        UserResponseDto user = createUser(3);
+
+        assertThat(serializer.deserialize(serializer.serialize(user))).isEqualTo(user);
+    }
+
+    @Test
+    @DisplayName("Null fields survive a round trip")
+    void testRoundTripWithNulls() {
+        UserResponseDto user = UserResponseDto.builder().id(1L).email("john.doe@gmail.com").build();
+
+        assertThat(serializer.deserialize(serializer.serialize(user))).isEqualTo(user);
+    }
+
+    @Test
+    @DisplayName("Large values are compressed")
+    void testCompression() {
+        UserResponseDto user = createUser(50);
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertThat(bytes[1]).isEqualTo((byte) 1);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+    }
+
+    @Test
+    @DisplayName("Encoding is smaller than JSON")
+    void testSmallerThanJson() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Jackson2JsonRedisSerializer<UserResponseDto> jsonSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, UserResponseDto.class);
+        UserResponseDto user = createUser(5);
+
+        assertThat(serializer.serialize(user).length).isLessThan(jsonSerializer.serialize(user).length / 2);
+    }
+
+    @Test
+    @DisplayName("Unknown format version reads as a cache miss")
+    void testUnknownVersion() {
+        assertThat(serializer.deserialize("{\"id\":1}".getBytes(StandardCharsets.UTF_8))).isNull();
+        assertThat(serializer.deserialize(new byte[]{99, 0, 2})).isNull();
+        assertThat(serializer.deserialize(new byte[]{1, 0, 2})).isNull();
+    }
+
+    static UserResponseDto createUser(int cardCount) {
+        List<CardInfoResponseDto> cards = LongStream.rangeClosed(1, cardCount)
+                .mapToObj(id -> CardInfoResponseDto.builder()
+                        .id(id)
+                        .userId(1L)
+                        .number("49169896123456" + String.format("%02d", id % 100))
+                        .holder("MICHAEL JORDAN")
+                        .expirationDate(LocalDate.of(2028, 1, 20).plusMonths(id))
+                        .version(id % 3)
+                        .build())
+                .toList();
+
+        return UserResponseDto.builder()
+                .id(1L)
+                .name("Michael")
+                .surname("Jordan")
+                .birthDate(LocalDate.of(1963, 2, 17))
+                .email("michael.jordan@gmail.com")
+                .version(7L)
+                .cards(cards)
+                .build();
+    }
+}
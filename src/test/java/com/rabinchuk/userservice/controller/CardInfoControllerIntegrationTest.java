@@ -2,6 +2,7 @@ package com.rabinchuk.userservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabinchuk.userservice.AbstractIntegrationTest;
+import com.rabinchuk.userservice.dto.BulkLookupRequestDto;
 import com.rabinchuk.userservice.dto.CardInfoRequestDto;
 import com.rabinchuk.userservice.dto.CardInfoWithUserIdRequestDto;
 import com.rabinchuk.userservice.model.CardInfo;
@@ -13,16 +14,26 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Sql(scripts = "/cleanup_cards.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
@@ -38,11 +49,17 @@ public class CardInfoControllerIntegrationTest extends AbstractIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     User existingUser;
     CardInfo cardInfo;
 
     @BeforeEach
     public void setUp() {
+        cacheManager.getCacheNames()
+                .forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+
         existingUser = userRepository.save(User.builder()
                 .name("Michael")
                 .surname("Jordan")
@@ -73,8 +90,50 @@ public class CardInfoControllerIntegrationTest extends AbstractIntegrationTest {
 
             mockMvc.perform(get("/api/cards"))
                     .andExpect(status().isOk())
-                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/cardInfo/get_all_cards_response.json")));
+                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/cardInfo/get_all_cards_page_response.json")));
+
+        }
+
+        @Test
+        @DisplayName("Import cards from CSV")
+        public void testImportCardsFromCsv() throws Exception {
+            String csv = """
+                    user_id,number,holder,expiration_date
+                    %1$d,4916989687654321,MICHAELJORDAN,2030-01-20
+                    %1$d,4916989612345678,MICHAELJORDAN,2028-01-20
+                    999999999,4916989611112222,NOBODY,2030-01-20
+                    %1$d,49169896,MICHAELJORDAN,2030-01-20
+                    """.formatted(existingUser.getId());
+
+            mockMvc.perform(post("/api/cards/import")
+                            .contentType("text/csv")
+                            .content(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.received").value(4))
+                    .andExpect(jsonPath("$.imported").value(1))
+                    .andExpect(jsonPath("$.rejected").value(3))
+                    .andExpect(jsonPath("$.rejections[0].reason").value("Card already exists"))
+                    .andExpect(jsonPath("$.rejections[1].reason").value("User not found"))
+                    .andExpect(jsonPath("$.rejections[2].reason").value("Card number must be 16 digits"));
+
+            assertThat(cardInfoRepository.findDtosByUserId(existingUser.getId())).hasSize(2);
+        }
 
+        @Test
+        @DisplayName("Import cards from NDJSON")
+        public void testImportCardsFromNdjson() throws Exception {
+            String ndjson = """
+                    {"userId": %1$d, "number": "4916989687654321", "holder": "MICHAELJORDAN", "expirationDate": "2030-01-20"}
+                    not json
+                    """.formatted(existingUser.getId());
+
+            mockMvc.perform(post("/api/cards/import")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(ndjson))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(1))
+                    .andExpect(jsonPath("$.rejections[0].row").value(2))
+                    .andExpect(jsonPath("$.rejections[0].reason").value("Malformed JSON record"));
         }
 
         @Test
@@ -101,6 +160,32 @@ public class CardInfoControllerIntegrationTest extends AbstractIntegrationTest {
                     .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/cardInfo/get_all_cards_response.json")));
         }
 
+        @Test
+        @DisplayName("Get cards by ids in request body")
+        public void testGetCardByIdsInBody() throws Exception {
+            CardInfo cardInfo2 = cardInfoRepository.save(CardInfo.builder()
+                    .user(existingUser)
+                    .number("4916989687654321")
+                    .holder("MICHAELJORDAN")
+                    .expirationDate(LocalDate.of(2030, 1, 20))
+                    .build());
+            BulkLookupRequestDto request = BulkLookupRequestDto.builder()
+                    .ids(List.of(cardInfo2.getId(), Long.MAX_VALUE, cardInfo.getId(), cardInfo2.getId()))
+                    .build();
+
+            MvcResult lookupResult = mockMvc.perform(post("/api/cards/getByIds")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(lookupResult))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].id").value(cardInfo2.getId()))
+                    .andExpect(jsonPath("$[0].userId").value(existingUser.getId()))
+                    .andExpect(jsonPath("$[1].id").value(cardInfo.getId()));
+        }
+
         @Test
         @DisplayName("Create card")
         public void testCreateCard() throws Exception {
@@ -190,7 +275,7 @@ public class CardInfoControllerIntegrationTest extends AbstractIntegrationTest {
             cardInfoRepository.deleteAll();
             mockMvc.perform(get("/api/cards"))
                     .andExpect(status().isOk())
-                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/blank_list_response.json")));
+                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/blank_page_response.json")));
         }
 
         @Test
@@ -206,7 +291,7 @@ public class CardInfoControllerIntegrationTest extends AbstractIntegrationTest {
         public void testGetCardByIdsShouldReturnOnlyOne() throws Exception {
             mockMvc.perform(get("/api/cards"))
                     .andExpect(status().isOk())
-                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/cardInfo/errors/get_cards_by_ids_should_return_only_one_response.json")));
+                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/cardInfo/errors/get_all_cards_should_return_only_one_page_response.json")));
         }
 
         @Test
@@ -344,4 +429,71 @@ public class CardInfoControllerIntegrationTest extends AbstractIntegrationTest {
                     .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/cardInfo/errors/get_card_by_user_id_error_response.json")));
         }
     }
+
+    @Nested
+    @DisplayName("Conditional requests")
+    class ConditionalRequests {
+        @Test
+        @DisplayName("Get card by id with the current ETag returns 304")
+        public void testGetCardByIdNotModified() throws Exception {
+            mockMvc.perform(get("/api/cards/getById/{id}", cardInfo.getId())
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("Adding a card changes the card list ETag and the owner's ETag")
+        public void testAddCardChangesETags() throws Exception {
+            Long userId = existingUser.getId();
+            String cardsETag = mockMvc.perform(get("/api/cards/getCardInfoByUserId/{id}", userId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            mockMvc.perform(get("/api/cards/getCardInfoByUserId/{id}", userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, cardsETag))
+                    .andExpect(status().isNotModified());
+
+            CardInfoRequestDto cardInfoRequestDto = CardInfoRequestDto.builder()
+                    .number("4916989687654321")
+                    .holder("MICHAELJORDAN")
+                    .expirationDate(LocalDate.of(2030, 1, 20))
+                    .build();
+            mockMvc.perform(post("/api/cards/addCardInfoToUser/{id}", userId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(cardInfoRequestDto)))
+                    .andExpect(status().isCreated());
+
+            mockMvc.perform(get("/api/cards/getCardInfoByUserId/{id}", userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, cardsETag))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2));
+            mockMvc.perform(get("/api/users/getById/{id}", userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        }
+
+        @Test
+        @DisplayName("Update card with a stale ETag returns 412")
+        public void testUpdateCardWithStaleETag() throws Exception {
+            CardInfoWithUserIdRequestDto cardInfoWithUserIdRequestDto = CardInfoWithUserIdRequestDto.builder()
+                    .userId(existingUser.getId())
+                    .number("4916989612345678")
+                    .holder("JOHNDOE")
+                    .expirationDate(LocalDate.of(2029, 1, 20))
+                    .build();
+
+            mockMvc.perform(put("/api/cards/{id}", cardInfo.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"3\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(cardInfoWithUserIdRequestDto)))
+                    .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(put("/api/cards/{id}", cardInfo.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(cardInfoWithUserIdRequestDto)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        }
+    }
 }
@@ -2,28 +2,41 @@ package com.rabinchuk.userservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabinchuk.userservice.AbstractIntegrationTest;
+import com.rabinchuk.userservice.dto.BulkLookupRequestDto;
+import com.rabinchuk.userservice.dto.UserBulkCreateRequestDto;
 import com.rabinchuk.userservice.dto.UserRequestDto;
 import com.rabinchuk.userservice.model.User;
 import com.rabinchuk.userservice.repository.UserRepository;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.skyscreamer.jsonassert.JSONAssert;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Sql(scripts = "/cleanup_users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -69,7 +82,60 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
 
             mockMvc.perform(get("/api/users"))
                     .andExpect(status().isOk())
-                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/user/get_all_users_response.json")));
+                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/user/get_all_users_page_response.json")));
+        }
+
+        @Test
+        @DisplayName("Create users in bulk")
+        public void testCreateUsersInBulk() throws Exception {
+            UserBulkCreateRequestDto request = UserBulkCreateRequestDto.builder()
+                    .users(List.of(
+                            UserRequestDto.builder()
+                                    .name("Michael")
+                                    .surname("Jackson")
+                                    .birthDate(LocalDate.of(1958, 8, 29))
+                                    .email("michael.jackson@gmail.com")
+                                    .build(),
+                            UserRequestDto.builder()
+                                    .name("Michael")
+                                    .surname("Jordan")
+                                    .birthDate(LocalDate.of(1963, 2, 17))
+                                    .email("michael.jordan@gmail.com")
+                                    .build()))
+                    .build();
+
+            mockMvc.perform(post("/api/users/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].status").value("CREATED"))
+                    .andExpect(jsonPath("$[1].status").value("CONFLICT"));
+
+            assertThat(userRepository.findIdByEmail("michael.jackson@gmail.com")).isPresent();
+        }
+
+        @Test
+        @DisplayName("Export all users as NDJSON")
+        public void testExportUsers() throws Exception {
+            userRepository.save(User.builder()
+                    .name("Michael")
+                    .surname("Jackson")
+                    .birthDate(LocalDate.of(1958, 8, 29))
+                    .email("michael.jackson@gmail.com")
+                    .build()
+            );
+
+            MvcResult exportResult = mockMvc.perform(get("/api/users/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String ndjson = mockMvc.perform(asyncDispatch(exportResult))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertThat(ndjson).endsWith("\n");
+            JSONAssert.assertEquals(AbstractIntegrationTest.readStringFromSource("json/user/get_all_users_response.json"),
+                    "[" + String.join(",", ndjson.strip().split("\n")) + "]", true);
         }
 
         @Test
@@ -88,6 +154,33 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
                     .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/user/get_all_users_response.json")));
         }
 
+        @Test
+        @DisplayName("Get users by ids in request body")
+        public void testGetUserByIdsInBody() throws Exception {
+            User existingUser2 = userRepository.save(User.builder()
+                    .name("Michael")
+                    .surname("Jackson")
+                    .birthDate(LocalDate.of(1958, 8, 29))
+                    .email("michael.jackson@gmail.com")
+                    .build()
+            );
+            BulkLookupRequestDto request = BulkLookupRequestDto.builder()
+                    .ids(List.of(existingUser2.getId(), Long.MAX_VALUE, existingUser.getId(), existingUser2.getId()))
+                    .build();
+
+            MvcResult lookupResult = mockMvc.perform(post("/api/users/getByIds")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(lookupResult))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].email").value("michael.jackson@gmail.com"))
+                    .andExpect(jsonPath("$[1].email").value("michael.jordan@gmail.com"));
+        }
+
         @Test
         @DisplayName("Get user by id")
         public void testGetUserById() throws Exception {
@@ -165,7 +258,15 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
             userRepository.deleteAll();
             mockMvc.perform(get("/api/users"))
                     .andExpect(status().isOk())
-                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/blank_list_response.json")));
+                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/blank_page_response.json")));
+        }
+
+        @Test
+        @DisplayName("Get all users with malformed cursor should return error")
+        public void testGetAllUsersWithInvalidCursorShouldReturnError() throws Exception {
+            mockMvc.perform(get("/api/users").param("cursor", "not-a-cursor"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/user/errors/get_all_users_invalid_cursor_error_response.json"), false));
         }
 
         @Test
@@ -176,6 +277,24 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
                     .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/user/errors/get_users_by_ids_should_return_only_one_response.json")));
         }
 
+        @Test
+        @DisplayName("Get users by ids in request body without ids should return error")
+        public void testGetUserByIdsInBodyWithoutIdsShouldReturnError() throws Exception {
+            mockMvc.perform(post("/api/users/getByIds")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ids\": []}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Create users in bulk with null user should return error")
+        public void testCreateUsersInBulkWithNullUserShouldReturnError() throws Exception {
+            mockMvc.perform(post("/api/users/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"users\": [null]}"))
+                    .andExpect(status().isBadRequest());
+        }
+
         @Test
         @DisplayName("Get user by id should return error")
         public void testGetUserByIdShouldReturnError() throws Exception {
@@ -254,6 +373,125 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("Conditional requests")
+    class ConditionalRequests {
+        @Test
+        @DisplayName("Get user by id with the current ETag returns 304")
+        public void testGetUserByIdNotModified() throws Exception {
+            Long userId = existingUser.getId();
+
+            mockMvc.perform(get("/api/users/getById/{id}", userId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+            mockMvc.perform(get("/api/users/getById/{id}", userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("Update user with the current ETag returns the new ETag")
+        public void testUpdateUserWithCurrentETag() throws Exception {
+            mockMvc.perform(put("/api/users/{id}", existingUser.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(createUpdateRequest())))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                    .andExpect(jsonPath("$.version").value(1));
+        }
+
+        @Test
+        @DisplayName("Update user with a stale ETag returns 412 and keeps the user")
+        public void testUpdateUserWithStaleETag() throws Exception {
+            Long userId = existingUser.getId();
+
+            mockMvc.perform(put("/api/users/{id}", userId)
+                            .header(HttpHeaders.IF_MATCH, "\"7\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(createUpdateRequest())))
+                    .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(get("/api/users/getById/{id}", userId))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/user/get_user_by_id_response.json")));
+        }
+
+        private UserRequestDto createUpdateRequest() {
+            return UserRequestDto.builder()
+                    .name("John")
+                    .surname("Doe")
+                    .birthDate(LocalDate.of(1999, 9, 19))
+                    .email("john.doe@gmail.com")
+                    .build();
+        }
+    }
+
+    @Nested
+    @DisplayName("Search")
+    class SearchUsers {
+        @BeforeEach
+        public void createUsers() {
+            userRepository.save(User.builder()
+                    .name("Michael")
+                    .surname("Jackson")
+                    .birthDate(LocalDate.of(1958, 8, 29))
+                    .email("michael.jackson@gmail.com")
+                    .build());
+            userRepository.save(User.builder()
+                    .name("Scottie")
+                    .surname("Pippen")
+                    .birthDate(LocalDate.of(1965, 9, 25))
+                    .email("scottie.pippen@gmail.com")
+                    .build());
+        }
+
+        @Test
+        @DisplayName("Search by surname prefix")
+        public void testSearchBySurnamePrefix() throws Exception {
+            mockMvc.perform(get("/api/users/search").param("query", "Jord"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.content[0].email").value("michael.jordan@gmail.com"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Search tolerates a misspelled name")
+        public void testSearchWithMisspelledName() throws Exception {
+            mockMvc.perform(get("/api/users/search").param("query", "Micheal"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(2))
+                    .andExpect(jsonPath("$.content[*].name", Matchers.everyItem(Matchers.is("Michael"))));
+        }
+
+        @Test
+        @DisplayName("Search pages through the ranking with the cursor")
+        public void testSearchPagination() throws Exception {
+            String firstPage = mockMvc.perform(get("/api/users/search").param("query", "michael").param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andReturn().getResponse().getContentAsString();
+            String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+            Long firstId = objectMapper.readTree(firstPage).get("content").get(0).get("id").asLong();
+
+            mockMvc.perform(get("/api/users/search").param("query", "michael").param("size", "1").param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.content[0].id", Matchers.not(Matchers.equalTo(firstId.intValue()))))
+                    .andExpect(jsonPath("$.content[0].name").value("Michael"));
+        }
+
+        @Test
+        @DisplayName("Search with too short query should return error")
+        public void testSearchWithTooShortQueryShouldReturnError() throws Exception {
+            mockMvc.perform(get("/api/users/search").param("query", "jo"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errorMessage").value("Search query must be between 3 and 100 characters long"));
+        }
+    }
+
     @Nested
     @DisplayName("Caching tests")
     class GetAllUsers {
@@ -273,7 +511,7 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
                     .andExpect(status().isOk());
             mockMvc.perform(get("/api/users/getById/{id}", userId))
                     .andExpect(status().isOk());
-            Mockito.verify(userRepository, Mockito.times(1)).findById(userId);
+            Mockito.verify(userRepository, Mockito.times(1)).findDtosByIdIn(Set.of(userId));
         }
 
         @Test
@@ -298,7 +536,8 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
                     .andExpect(status().isOk())
                     .andExpect(content().json(AbstractIntegrationTest.readStringFromSource("json/user/update_user_response.json")));
 
-            Mockito.verify(userRepository, Mockito.times(2)).findById(userId);
+            Mockito.verify(userRepository, Mockito.times(2)).findDtosByIdIn(Set.of(userId));
+            Mockito.verify(userRepository, Mockito.times(1)).findById(userId);
         }
 
         @Test
@@ -313,7 +552,9 @@ public class UserControllerIntegrationTest extends AbstractIntegrationTest {
             mockMvc.perform(get("/api/users/getById/{id}", userId))
                     .andExpect(status().isNotFound());
 
-            Mockito.verify(userRepository, Mockito.times(3)).findById(userId);
+            Mockito.verify(userRepository, Mockito.times(2)).findDtosByIdIn(Set.of(userId));
+            Mockito.verify(userRepository, Mockito.times(1)).deleteByIdReturningCards(userId);
+            Mockito.verify(userRepository, Mockito.never()).findById(userId);
         }
     }
 
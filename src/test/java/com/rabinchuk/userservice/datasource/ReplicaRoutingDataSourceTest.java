@@ -0,0 +1,127 @@
+package com.rabinchuk.userservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Mock
+    private HttpServletResponse response;
+
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        when(replicaLagMonitor.getReplicas()).thenReturn(Map.of("replica-1", mock(HikariDataSource.class)));
+        readYourWrites = new ReadYourWrites("secret", Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        routingDataSource = new ReplicaRoutingDataSource(mock(HikariDataSource.class), replicaLagMonitor, readYourWrites);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.unbind();
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions go to a replica in rotation")
+    void testReadOnlyRoutedToReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaLagMonitor.nextReplica()).thenReturn("replica-1");
+
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo("replica-1");
+    }
+
+    @Test
+    @DisplayName("Read-only transactions fall back to the primary without a replica in rotation")
+    void testReadOnlyFallsBackToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaLagMonitor.nextReplica()).thenReturn(null);
+
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    @DisplayName("Committed write pins the rest of the request and returns a token")
+    void testWritePinsRequest() {
+        readYourWrites.bind(response, null);
+
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(readYourWrites.isPinned()).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(response).setHeader(eq(ReadYourWrites.HEADER), token.capture());
+        assertThat(readYourWrites.isPinned()).isTrue();
+        assertThat(readYourWrites.isValid(token.getValue())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Rolled back write does not pin the request")
+    void testRolledBackWriteDoesNotPin() {
+        readYourWrites.bind(response, null);
+
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(response, never()).setHeader(anyString(), anyString());
+        assertThat(readYourWrites.isPinned()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Client with a valid token reads from the primary")
+    void testPinnedClientReadsFromPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        readYourWrites.bind(response, readYourWrites.issueToken());
+
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        verify(replicaLagMonitor, never()).nextReplica();
+    }
+
+    @Test
+    @DisplayName("Expired or tampered tokens are rejected")
+    void testInvalidTokens() {
+        ReadYourWrites expired = new ReadYourWrites("secret", Duration.ofSeconds(5), Clock.fixed(NOW.minusSeconds(10), ZoneOffset.UTC));
+        String token = readYourWrites.issueToken();
+        String signature = token.substring(token.indexOf('.'));
+
+        assertThat(readYourWrites.isValid(expired.issueToken())).isFalse();
+        assertThat(readYourWrites.isValid(NOW.plusSeconds(3600).toEpochMilli() + signature)).isFalse();
+        assertThat(readYourWrites.isValid("garbage")).isFalse();
+        assertThat(readYourWrites.isValid(null)).isFalse();
+    }
+}
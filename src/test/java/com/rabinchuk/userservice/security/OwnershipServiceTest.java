@@ -0,0 +1,92 @@
+package com.rabinchuk.userservice.security;
+
+import com.rabinchuk.userservice.repository.CardInfoRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OwnershipServiceTest {
+
+    @Mock
+    private CardInfoRepository cardInfoRepository;
+
+    private OwnershipService ownershipService;
+
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        ownershipService = new OwnershipService(cardInfoRepository, new OwnershipLookupCache());
+        authentication = new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(1L, "michael.jordan@gmail.com"), null, List.of());
+    }
+
+    @Test
+    @DisplayName("User id is compared with the principal")
+    void testIsSelf() {
+        assertThat(ownershipService.isSelf(1L, authentication)).isTrue();
+        assertThat(ownershipService.isSelf(2L, authentication)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Principal without user id is denied")
+    void testIsSelfWithoutUserId() {
+        Authentication internal = new UsernamePasswordAuthenticationToken("internal-service", null, List.of());
+        Authentication unknown = new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(null, "unknown@gmail.com"), null, List.of());
+
+        assertThat(ownershipService.isSelf(1L, internal)).isFalse();
+        assertThat(ownershipService.isSelf(1L, unknown)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Card owner is granted access")
+    void testIsCardOwner() {
+        when(cardInfoRepository.findUserIdById(1L)).thenReturn(Optional.of(1L));
+
+        assertThat(ownershipService.isCardOwner(1L, authentication)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Another user's card is denied")
+    void testIsNotCardOwner() {
+        when(cardInfoRepository.findUserIdById(1L)).thenReturn(Optional.of(2L));
+
+        assertThat(ownershipService.isCardOwner(1L, authentication)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Missing card should throw exception")
+    void testIsCardOwnerShouldThrowException() {
+        when(cardInfoRepository.findUserIdById(100L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> ownershipService.isCardOwner(100L, authentication));
+    }
+
+    @Test
+    @DisplayName("Card owner lookups are memoized within a request")
+    void testCardOwnerLookupIsMemoized() {
+        when(cardInfoRepository.findUserIdById(1L)).thenReturn(Optional.of(1L));
+
+        ownershipService.isCardOwner(1L, authentication);
+        ownershipService.isCardOwner(1L, authentication);
+
+        verify(cardInfoRepository, times(1)).findUserIdById(1L);
+    }
+}
@@ -0,0 +1,140 @@
+package com.rabinchuk.userservice.service;
+
+import com.rabinchuk.userservice.AbstractIntegrationTest;
+import com.rabinchuk.userservice.dto.CardInfoResponseDto;
+import com.rabinchuk.userservice.expiration.ExpiringCardHandler;
+import com.rabinchuk.userservice.model.CardInfo;
+import com.rabinchuk.userservice.model.User;
+import com.rabinchuk.userservice.repository.CardInfoRepository;
+import com.rabinchuk.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@Sql(scripts = "/cleanup_cards.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Sql(scripts = "/cleanup_users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@TestPropertySource(properties = {"app.card-expiration.chunk-size=2", "app.card-expiration.days-ahead=30"})
+public class CardExpirationServiceIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private CardExpirationService cardExpirationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardInfoRepository cardInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private ExpiringCardHandler expiringCardHandler;
+
+    private final List<Long> handledCardIds = new CopyOnWriteArrayList<>();
+    private LocalDate today;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                UPDATE card_expiration_scan
+                SET window_start = NULL, window_end = NULL, after_expiration_date = NULL, after_id = NULL,
+                    completed_at = NULL, locked_by = NULL, locked_until = NULL
+                """);
+        doAnswer(invocation -> {
+            List<CardInfoResponseDto> cards = invocation.getArgument(0);
+            cards.forEach(card -> handledCardIds.add(card.id()));
+            return null;
+        }).when(expiringCardHandler).handle(any());
+
+        today = LocalDate.now();
+        user = userRepository.save(User.builder()
+                .name("Michael")
+                .surname("Jordan")
+                .birthDate(LocalDate.of(1963, 2, 17))
+                .email("michael.jordan@gmail.com")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Scan hands over every card expiring within the window")
+    void testScanHandlesCardsInWindow() {
+        createCard(today.minusDays(1));
+        Long expiringToday = createCard(today);
+        Long expiringSoon = createCard(today.plusDays(10));
+        Long expiringLater = createCard(today.plusDays(29));
+        Long expiringLast = createCard(today.plusDays(30));
+        createCard(today.plusDays(31));
+
+        long handled = cardExpirationService.scanExpiringCards();
+
+        assertThat(handled).isEqualTo(4);
+        assertThat(handledCardIds).containsExactlyInAnyOrder(expiringToday, expiringSoon, expiringLater, expiringLast);
+    }
+
+    @Test
+    @DisplayName("Scan that completed today is not repeated")
+    void testCompletedScanIsNotRepeated() {
+        createCard(today.plusDays(1));
+
+        assertThat(cardExpirationService.scanExpiringCards()).isEqualTo(1);
+        assertThat(cardExpirationService.scanExpiringCards()).isZero();
+        assertThat(handledCardIds).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Interrupted scan resumes after its checkpoint")
+    void testScanResumesAfterCheckpoint() {
+        createCard(today.plusDays(1));
+        Long checkpointCard = createCard(today.plusDays(10));
+        Long expiringLater = createCard(today.plusDays(20));
+        Long expiringLast = createCard(today.plusDays(30));
+        jdbcTemplate.update("""
+                UPDATE card_expiration_scan
+                SET window_start = ?, window_end = ?, after_expiration_date = ?, after_id = ?
+                """, today, today.plusDays(30), today.plusDays(10), checkpointCard);
+
+        long handled = cardExpirationService.scanExpiringCards();
+
+        assertThat(handled).isEqualTo(2);
+        assertThat(handledCardIds).containsExactlyInAnyOrder(expiringLater, expiringLast);
+    }
+
+    @Test
+    @DisplayName("Scan is skipped while another node holds the lease")
+    void testScanSkippedWhileLeased() {
+        createCard(today.plusDays(1));
+        jdbcTemplate.update("""
+                UPDATE card_expiration_scan
+                SET locked_by = 'other-node', locked_until = now() + interval '1 hour'
+                """);
+
+        assertThat(cardExpirationService.scanExpiringCards()).isZero();
+        verify(expiringCardHandler, never()).handle(any());
+    }
+
+    private Long createCard(LocalDate expirationDate) {
+        return cardInfoRepository.save(CardInfo.builder()
+                .user(user)
+                .number("4916989612345678")
+                .holder("MICHAELJORDAN")
+                .expirationDate(expirationDate)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,36 @@
+package com.rabinchuk.userservice.service;
+
+import com.rabinchuk.userservice.service.impl.CardExpirationServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class CardExpirationServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Scan without handlers is skipped without taking the lease")
+    void testScanSkippedWithoutHandlers() {
+        CardExpirationServiceImpl cardExpirationService = new CardExpirationServiceImpl(
+                jdbcTemplate, List.of(), meterRegistry, 30, 500, 4, Duration.ofMinutes(10));
+
+        assertThat(cardExpirationService.scanExpiringCards()).isZero();
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(meterRegistry.get("card.expiration.scans").tag("result", "skipped").timer().count()).isEqualTo(1);
+    }
+}
@@ -1,14 +1,20 @@
 package com.rabinchuk.userservice.service;
 
+import com.rabinchuk.userservice.batching.BatchLoader;
+import com.rabinchuk.userservice.cache.CacheInvalidator;
+import com.rabinchuk.userservice.cache.CacheNames;
 import com.rabinchuk.userservice.dto.CardInfoRequestDto;
 import com.rabinchuk.userservice.dto.CardInfoResponseDto;
 import com.rabinchuk.userservice.dto.CardInfoWithUserIdRequestDto;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
 import com.rabinchuk.userservice.mapper.CardInfoMapper;
 import com.rabinchuk.userservice.model.CardInfo;
 import com.rabinchuk.userservice.model.User;
+import com.rabinchuk.userservice.pagination.KeysetPagination;
 import com.rabinchuk.userservice.repository.CardInfoRepository;
 import com.rabinchuk.userservice.repository.UserRepository;
 import com.rabinchuk.userservice.service.impl.CardInfoServiceImpl;
+import com.rabinchuk.userservice.versioning.PreconditionFailedException;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,7 +23,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.Collections;
@@ -28,7 +36,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -46,6 +53,15 @@ public class CardInfoServiceTest {
     @Mock
     private CardInfoMapper cardInfoMapper;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Spy
+    private KeysetPagination keysetPagination = new KeysetPagination(100);
+
+    @Mock
+    private BatchLoader<Long, CardInfoResponseDto> cardBatchLoader;
+
     @InjectMocks
     private CardInfoServiceImpl cardInfoService;
 
@@ -75,49 +91,65 @@ public class CardInfoServiceTest {
     @Test
     @DisplayName("Get all cards")
     void testGetAllCards() {
-        List<CardInfo> cards = List.of(cardInfo1, cardInfo2);
-
-        when(cardInfoRepository.findAll()).thenReturn(cards);
-        when(cardInfoMapper.toDto(cardInfo1)).thenReturn(cardInfoResponseDto1);
-        when(cardInfoMapper.toDto(cardInfo2)).thenReturn(cardInfoResponseDto2);
+        when(cardInfoRepository.findDtoPageAfter(0L, Limit.of(21))).thenReturn(List.of(cardInfoResponseDto1, cardInfoResponseDto2));
         List<CardInfoResponseDto> expected = List.of(cardInfoResponseDto1, cardInfoResponseDto2);
 
-        List<CardInfoResponseDto> actual = cardInfoService.getAll();
+        CursorPageResponseDto<CardInfoResponseDto> actual = cardInfoService.getAll(null, 20);
 
-        assertThat(actual).isNotNull().hasSize(2);
-        assertEquals(expected, actual);
-        verify(cardInfoRepository, times(1)).findAll();
+        assertEquals(expected, actual.content());
+        assertThat(actual.nextCursor()).isNull();
+        verify(cardInfoRepository, times(1)).findDtoPageAfter(0L, Limit.of(21));
+    }
+
+    @Test
+    @DisplayName("Get all cards returns a cursor when more cards follow")
+    void testGetAllCardsWithNextPage() {
+        when(cardInfoRepository.findDtoPageAfter(0L, Limit.of(2))).thenReturn(List.of(cardInfoResponseDto1, cardInfoResponseDto2));
+
+        CursorPageResponseDto<CardInfoResponseDto> actual = cardInfoService.getAll(null, 1);
+
+        assertThat(actual.content()).containsExactly(cardInfoResponseDto1);
+        assertThat(keysetPagination.afterId(actual.nextCursor())).isEqualTo(cardInfoResponseDto1.id());
+    }
+
+    @Test
+    @DisplayName("Get all cards caps the page size")
+    void testGetAllCardsCapsPageSize() {
+        when(cardInfoRepository.findDtoPageAfter(0L, Limit.of(101))).thenReturn(Collections.emptyList());
+
+        cardInfoService.getAll(null, 10_000);
+
+        verify(cardInfoRepository).findDtoPageAfter(0L, Limit.of(101));
     }
 
     @Test
     @DisplayName("Get all cards should return empty list")
     void testGetAllCardsShouldReturnEmptyList() {
-        when(cardInfoRepository.findAll()).thenReturn(Collections.emptyList());
+        when(cardInfoRepository.findDtoPageAfter(0L, Limit.of(21))).thenReturn(Collections.emptyList());
 
-        List<CardInfoResponseDto> actual = cardInfoService.getAll();
+        CursorPageResponseDto<CardInfoResponseDto> actual = cardInfoService.getAll(null, 20);
 
-        assertThat(actual).isEmpty();
-        verify(cardInfoRepository, times(1)).findAll();
-        verify(cardInfoMapper, never()).toDto(any());
+        assertThat(actual.content()).isEmpty();
+        assertThat(actual.nextCursor()).isNull();
     }
 
     @Test
     @DisplayName("Get card by id")
     void testGetCardById() {
-        when(cardInfoRepository.findById(1L)).thenReturn(Optional.of(cardInfo1));
-        when(cardInfoMapper.toDto(cardInfo1)).thenReturn(cardInfoResponseDto1);
+        when(cardBatchLoader.load(1L)).thenReturn(Optional.of(cardInfoResponseDto1));
 
         CardInfoResponseDto actual = cardInfoService.getById(1L);
 
 
         assertThat(actual).isNotNull().isEqualTo(cardInfoResponseDto1);
-        verify(cardInfoRepository, times(1)).findById(1L);
+        verify(cardBatchLoader, times(1)).load(1L);
+        verify(cardInfoMapper, never()).toDto(any());
     }
 
     @Test
     @DisplayName("Get card by id should throw exception")
     void testGetCardByIdShouldThrowException() {
-        when(cardInfoRepository.findById(100L)).thenReturn(Optional.empty());
+        when(cardBatchLoader.load(100L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> cardInfoService.getById(100L));
     }
@@ -125,9 +157,7 @@ public class CardInfoServiceTest {
     @Test
     @DisplayName("Get cards by ids")
     void testGetCardsByIds() {
-        when(cardInfoRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(cardInfo1, cardInfo2));
-        when(cardInfoMapper.toDto(cardInfo1)).thenReturn(cardInfoResponseDto1);
-        when(cardInfoMapper.toDto(cardInfo2)).thenReturn(cardInfoResponseDto2);
+        when(cardInfoRepository.findDtosByIdIn(List.of(1L, 2L))).thenReturn(List.of(cardInfoResponseDto1, cardInfoResponseDto2));
         List<CardInfoResponseDto> expected = List.of(cardInfoResponseDto1, cardInfoResponseDto2);
 
         List<CardInfoResponseDto> actual = cardInfoService.getByIds(List.of(1L, 2L));
@@ -135,14 +165,14 @@ public class CardInfoServiceTest {
         assertThat(actual).isNotNull().hasSize(2);
         assertEquals(expected, actual);
 
-        verify(cardInfoRepository, times(1)).findAllById(List.of(1L, 2L));
+        verify(cardInfoRepository, times(1)).findDtosByIdIn(List.of(1L, 2L));
     }
 
     @Test
     @DisplayName("Add card to user")
     void testAddCardToUser() {
         assertThat(user.getCards()).isEmpty();
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findByIdIncrementingVersion(1L)).thenReturn(Optional.of(user));
         when(cardInfoMapper.toEntity(cardInfoRequestDto1)).thenReturn(cardInfo1);
         when(cardInfoRepository.save(any(CardInfo.class))).thenReturn(cardInfo1);
         when(cardInfoMapper.toDto(cardInfo1)).thenReturn(cardInfoResponseDto1);
@@ -158,7 +188,7 @@ public class CardInfoServiceTest {
         assertThat(user.getCards()).contains(savedCardInfo);
         assertThat(user.getCards()).hasSize(1);
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findByIdIncrementingVersion(1L);
         verify(cardInfoMapper, times(1)).toEntity(cardInfoRequestDto1);
         verify(cardInfoMapper, times(1)).toDto(cardInfo1);
     }
@@ -166,7 +196,7 @@ public class CardInfoServiceTest {
     @Test
     @DisplayName("Add card to user should throw exception")
     void testAddCardToUserShouldThrowException() {
-        when(userRepository.findById(100L)).thenReturn(Optional.empty());
+        when(userRepository.findByIdIncrementingVersion(100L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> cardInfoService.addCardInfoToUser(100L, cardInfoRequestDto1));
         verify(cardInfoRepository, never()).save(any());
@@ -176,7 +206,7 @@ public class CardInfoServiceTest {
     @DisplayName("Create card")
     void testCreateCard() {
         assertThat(user.getCards()).isEmpty();
-        when(userRepository.findById(cardInfoWithUserIdRequestDto1.userId())).thenReturn(Optional.of(user));
+        when(userRepository.findByIdIncrementingVersion(cardInfoWithUserIdRequestDto1.userId())).thenReturn(Optional.of(user));
         when(cardInfoMapper.toEntity(cardInfoWithUserIdRequestDto1)).thenReturn(cardInfo1);
         when(cardInfoRepository.save(any(CardInfo.class))).thenReturn(cardInfo1);
         when(cardInfoMapper.toDto(cardInfo1)).thenReturn(cardInfoResponseDto1);
@@ -192,7 +222,7 @@ public class CardInfoServiceTest {
         assertThat(user.getCards()).hasSize(1);
         assertThat(user.getCards()).contains(savedCardInfo);
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findByIdIncrementingVersion(1L);
         verify(cardInfoMapper, times(1)).toEntity(cardInfoWithUserIdRequestDto1);
         verify(cardInfoMapper, times(1)).toDto(cardInfo1);
     }
@@ -200,7 +230,7 @@ public class CardInfoServiceTest {
     @Test
     @DisplayName("Create card should throw exception")
     void testCreateCardShouldThrowException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findByIdIncrementingVersion(1L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> cardInfoService.create(cardInfoWithUserIdRequestDto1));
         verify(cardInfoRepository, never()).save(any());
@@ -227,16 +257,29 @@ public class CardInfoServiceTest {
                 .build();
 
         when(cardInfoRepository.findById(cardIdToUpdate)).thenReturn(Optional.of(cardInfo1));
+        when(userRepository.findByIdIncrementingVersion(1L)).thenReturn(Optional.of(user));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cardInfoRepository.save(any(CardInfo.class))).thenReturn(cardInfo1);
+        when(cardInfoRepository.saveAndFlush(any(CardInfo.class))).thenReturn(cardInfo1);
         when(cardInfoMapper.toDto(cardInfo1)).thenReturn(expectedResponseDto);
 
-        CardInfoResponseDto actualResponse = cardInfoService.updateById(cardIdToUpdate, updateRequestDto);
+        CardInfoResponseDto actualResponse = cardInfoService.updateById(cardIdToUpdate, updateRequestDto, null);
 
         assertThat(actualResponse).isNotNull();
         assertThat(actualResponse).isEqualTo(expectedResponseDto);
         verify(cardInfoMapper).updateCardInfoFromDto(updateRequestDto, cardInfo1);
-        verify(cardInfoRepository).save(cardInfo1);
+        verify(cardInfoRepository).saveAndFlush(cardInfo1);
+        verify(userRepository).findByIdIncrementingVersion(1L);
+    }
+
+    @Test
+    @DisplayName("Update card with a stale version should throw exception")
+    void testUpdateCardWithStaleVersion() {
+        cardInfo1.setVersion(3L);
+        when(cardInfoRepository.findById(1L)).thenReturn(Optional.of(cardInfo1));
+
+        assertThrows(PreconditionFailedException.class, () -> cardInfoService.updateById(1L, cardInfoWithUserIdRequestDto1, 2L));
+        verify(cardInfoMapper, never()).updateCardInfoFromDto(any(), any());
+        verify(cardInfoRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -244,52 +287,51 @@ public class CardInfoServiceTest {
     void testUpdateCardShouldThrowException() {
         when(cardInfoRepository.findById(100L)).thenReturn(Optional.empty());
 
-        assertThrows(EntityNotFoundException.class, () -> cardInfoService.updateById(100L, cardInfoWithUserIdRequestDto1));
-        verify(cardInfoRepository, never()).save(any());
+        assertThrows(EntityNotFoundException.class, () -> cardInfoService.updateById(100L, cardInfoWithUserIdRequestDto1, null));
+        verify(cardInfoRepository, never()).saveAndFlush(any());
     }
 
     @Test
     @DisplayName("Delete card by id")
     void testDeleteCardById() {
-        when(cardInfoRepository.findById(2L)).thenReturn(Optional.of(cardInfo2));
-        doNothing().when(cardInfoRepository).deleteById(2L);
+        when(cardInfoRepository.deleteByIdReturningUserId(2L)).thenReturn(Optional.of(user.getId()));
 
         cardInfoService.deleteById(2L);
 
-        verify(cardInfoRepository, times(1)).deleteById(2L);
+        verify(cardInfoRepository, times(1)).deleteByIdReturningUserId(2L);
+        verify(cardInfoRepository, never()).findById(any());
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.CARD_CACHE, 2L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_CARDS_CACHE, user.getId());
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_CACHE, user.getId());
     }
 
     @Test
     @DisplayName("Delete card by id should throw exception")
     void testDeleteCardByIdShouldThrowException() {
-        when(cardInfoRepository.findById(100L)).thenReturn(Optional.empty());
+        when(cardInfoRepository.deleteByIdReturningUserId(100L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> cardInfoService.deleteById(100L));
-        verify(cardInfoRepository, never()).delete(any());
+        verify(cacheInvalidator, never()).evictAfterCommit(CacheNames.CARD_CACHE, 100L);
     }
 
     @Test
     @DisplayName("Get card info by user id")
     void testGetCardInfoByUserId() {
-        List<CardInfo> cards = List.of(cardInfo1, cardInfo2);
-
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cardInfoRepository.findByUserId(1L)).thenReturn(cards);
-        when(cardInfoMapper.toDto(cardInfo1)).thenReturn(cardInfoResponseDto1);
-        when(cardInfoMapper.toDto(cardInfo2)).thenReturn(cardInfoResponseDto2);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(cardInfoRepository.findDtosByUserId(1L)).thenReturn(List.of(cardInfoResponseDto1, cardInfoResponseDto2));
         List<CardInfoResponseDto> expected = List.of(cardInfoResponseDto1, cardInfoResponseDto2);
 
         List<CardInfoResponseDto> actual = cardInfoService.getCardInfoByUserId(1L);
 
         assertThat(actual).isNotNull().hasSize(2);
         assertEquals(expected, actual);
-        verify(cardInfoRepository, times(1)).findByUserId(1L);
+        verify(cardInfoRepository, times(1)).findDtosByUserId(1L);
     }
 
     @Test
     @DisplayName("Get card info by user id should throw exception")
     void testGetCardInfoByUserIdShouldThrowException() {
-        when(userRepository.findById(100L)).thenReturn(Optional.empty());
+        when(userRepository.existsById(100L)).thenReturn(false);
 
         assertThrows(EntityNotFoundException.class, () -> cardInfoService.getCardInfoByUserId(100L));
     }
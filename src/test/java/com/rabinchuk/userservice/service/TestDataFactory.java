@@ -120,4 +120,21 @@ public class TestDataFactory {
                 .expirationDate(LocalDate.of(2030, 1, 1))
                 .build();
     }
+
+    public static User createUserWithCards(int index, int cardCount) {
+        User user = User.builder()
+                .name("Name" + index)
+                .surname("Surname" + index)
+                .birthDate(LocalDate.of(1990, 1, 1).plusDays(index))
+                .email("user" + index + "@gmail.com")
+                .build();
+        for (int card = 0; card < cardCount; card++) {
+            user.addCardInfo(CardInfo.builder()
+                    .number(String.format("4000%06d%06d", index, card))
+                    .holder("NAME" + index + " SURNAME" + index)
+                    .expirationDate(LocalDate.of(2030, 1, 1))
+                    .build());
+        }
+        return user;
+    }
 }
@@ -0,0 +1,205 @@
+package com.rabinchuk.userservice.service;
+
+import com.rabinchuk.userservice.cache.CacheInvalidator;
+import com.rabinchuk.userservice.cache.CacheNames;
+import com.rabinchuk.userservice.dto.BulkItemResultDto;
+import com.rabinchuk.userservice.dto.BulkItemStatus;
+import com.rabinchuk.userservice.dto.UserBulkUpdateItemDto;
+import com.rabinchuk.userservice.dto.UserRequestDto;
+import com.rabinchuk.userservice.service.impl.UserBulkServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserBulkServiceTest {
+
+    private static final Answer<Object> RUN_IN_TRANSACTION = invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    private UserBulkServiceImpl userBulkService;
+
+    @BeforeEach
+    void setUp() {
+        userBulkService = new UserBulkServiceImpl(jdbcTemplate, transactionTemplate, cacheInvalidator, 2);
+    }
+
+    @Test
+    @DisplayName("Create users reports taken emails as conflicts")
+    void testCreateAll() {
+        when(transactionTemplate.execute(any())).thenAnswer(RUN_IN_TRANSACTION);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(10L, 11L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        List<BulkItemResultDto> results = userBulkService.createAll(List.of(
+                createUser("michael.jordan@gmail.com"), createUser("michael.jackson@gmail.com")));
+
+        assertThat(results).extracting(BulkItemResultDto::status)
+                .containsExactly(BulkItemStatus.CREATED, BulkItemStatus.CONFLICT);
+        assertThat(results.getFirst().id()).isEqualTo(10L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_ID_CACHE, "michael.jordan@gmail.com");
+        verify(cacheInvalidator, never()).evictAfterCommit(CacheNames.USER_ID_CACHE, "michael.jackson@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Create users runs one transaction per chunk")
+    void testCreateAllInChunks() {
+        when(transactionTemplate.execute(any())).thenAnswer(RUN_IN_TRANSACTION);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(10L, 11L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(12L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1}, new int[]{1});
+
+        List<BulkItemResultDto> results = userBulkService.createAll(List.of(
+                createUser("a@gmail.com"), createUser("b@gmail.com"), createUser("c@gmail.com")));
+
+        assertThat(results).extracting(BulkItemResultDto::index).containsExactly(0, 1, 2);
+        assertThat(results).extracting(BulkItemResultDto::id).containsExactly(10L, 11L, 12L);
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Failed chunk is reported without failing the others")
+    void testCreateAllWithFailedChunk() {
+        when(transactionTemplate.execute(any())).thenAnswer(RUN_IN_TRANSACTION);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(10L, 11L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(12L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(new int[]{1});
+
+        List<BulkItemResultDto> results = userBulkService.createAll(List.of(
+                createUser("a@gmail.com"), createUser("b@gmail.com"), createUser("c@gmail.com")));
+
+        assertThat(results).extracting(BulkItemResultDto::status)
+                .containsExactly(BulkItemStatus.FAILED, BulkItemStatus.FAILED, BulkItemStatus.CREATED);
+    }
+
+    @Test
+    @DisplayName("Chunk failing on commit is reported without failing the others")
+    void testCreateAllWithChunkFailingOnCommit() {
+        doAnswer(invocation -> {
+            RUN_IN_TRANSACTION.answer(invocation);
+            throw new TransactionSystemException("Could not commit JDBC transaction");
+        }).doAnswer(RUN_IN_TRANSACTION).when(transactionTemplate).execute(any());
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(10L, 11L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(12L));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1}, new int[]{1});
+
+        List<BulkItemResultDto> results = userBulkService.createAll(List.of(
+                createUser("a@gmail.com"), createUser("b@gmail.com"), createUser("c@gmail.com")));
+
+        assertThat(results).extracting(BulkItemResultDto::status)
+                .containsExactly(BulkItemStatus.FAILED, BulkItemStatus.FAILED, BulkItemStatus.CREATED);
+        assertThat(results.getFirst().errorMessage()).isEqualTo("Could not commit JDBC transaction");
+        assertThat(results).extracting(BulkItemResultDto::index).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    @DisplayName("Update users reports unknown ids and taken emails")
+    void testUpdateAll() {
+        when(transactionTemplate.execute(any())).thenAnswer(RUN_IN_TRANSACTION);
+        mockCurrentEmails(Map.of(1L, "old@gmail.com", 2L, "other@gmail.com"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        List<BulkItemResultDto> results = userBulkService.updateAll(List.of(
+                new UserBulkUpdateItemDto(1L, createUser("new@gmail.com")),
+                new UserBulkUpdateItemDto(2L, createUser("taken@gmail.com"))));
+        List<BulkItemResultDto> missing = userBulkService.updateAll(List.of(
+                new UserBulkUpdateItemDto(3L, createUser("new@gmail.com"))));
+
+        assertThat(results).extracting(BulkItemResultDto::status)
+                .containsExactly(BulkItemStatus.UPDATED, BulkItemStatus.CONFLICT);
+        assertThat(missing).extracting(BulkItemResultDto::status).containsExactly(BulkItemStatus.NOT_FOUND);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_ID_CACHE, "old@gmail.com");
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_CACHE, 1L);
+        verify(cacheInvalidator, never()).evictAfterCommit(CacheNames.USER_CACHE, 2L);
+    }
+
+    @Test
+    @DisplayName("Delete users in one statement and evicts their cascaded cards")
+    void testDeleteAll() {
+        when(transactionTemplate.execute(any())).thenAnswer(RUN_IN_TRANSACTION);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Long cardId : List.of(5L, 6L)) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn(1L);
+                when(rs.getString("email")).thenReturn("michael.jordan@gmail.com");
+                when(rs.getObject("card_id", Long.class)).thenReturn(cardId);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any());
+
+        List<BulkItemResultDto> results = userBulkService.deleteAll(List.of(1L, 2L));
+
+        assertThat(results).extracting(BulkItemResultDto::status)
+                .containsExactly(BulkItemStatus.DELETED, BulkItemStatus.NOT_FOUND);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.CARD_CACHE, 5L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.CARD_CACHE, 6L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_CACHE, 1L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_ID_CACHE, "michael.jordan@gmail.com");
+    }
+
+    private void mockCurrentEmails(Map<Long, String> emails) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            Long[] ids = invocation.getArgument(2);
+            for (Long id : ids) {
+                if (emails.containsKey(id)) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getLong("id")).thenReturn(id);
+                    when(rs.getString("email")).thenReturn(emails.get(id));
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any());
+    }
+
+    private static UserRequestDto createUser(String email) {
+        return UserRequestDto.builder()
+                .name("Michael")
+                .surname("Jordan")
+                .birthDate(LocalDate.of(1963, 2, 17))
+                .email(email)
+                .build();
+    }
+}
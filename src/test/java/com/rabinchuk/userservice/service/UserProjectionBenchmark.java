@@ -0,0 +1,83 @@
+package com.rabinchuk.userservice.service;
+
+import com.rabinchuk.userservice.AbstractIntegrationTest;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import com.rabinchuk.userservice.mapper.UserMapper;
+import com.rabinchuk.userservice.model.User;
+import com.rabinchuk.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Compares latency and allocation of reading users with cards as entities mapped by MapStruct
+ * against reading them straight into DTOs.
+ * Run with {@code mvn test -Dtest=UserProjectionBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Sql(scripts = "/cleanup_users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class UserProjectionBenchmark extends AbstractIntegrationTest {
+
+    private static final int USER_COUNT = 100;
+    private static final int CARDS_PER_USER = 5;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void compareReadPaths() {
+        List<Long> ids = IntStream.range(0, USER_COUNT)
+                .mapToObj(index -> userRepository.save(TestDataFactory.createUserWithCards(index, CARDS_PER_USER)))
+                .map(User::getId)
+                .toList();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        report("entity", readOnly, () -> entityManager.createQuery(
+                        "SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.cards WHERE u.id IN :ids", User.class)
+                .setParameter("ids", ids)
+                .getResultList().stream()
+                .map(userMapper::toDto)
+                .toList());
+        report("dto", readOnly, () -> userRepository.findDtosByIdIn(ids));
+    }
+
+    private void report(String name, TransactionTemplate readOnly, Supplier<List<UserResponseDto>> read) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            readOnly.execute(status -> read.get());
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedStart = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            readOnly.execute(status -> read.get());
+        }
+        long nanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        long allocated = (threads.getCurrentThreadAllocatedBytes() - allocatedStart) / MEASURED_ITERATIONS;
+
+        System.out.printf("%-7s users=%d cards=%d  latency=%8d ns/op  allocated=%9d B/op%n",
+                name, USER_COUNT, USER_COUNT * CARDS_PER_USER, nanos, allocated);
+    }
+}
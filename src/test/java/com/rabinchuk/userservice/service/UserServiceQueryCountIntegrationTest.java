@@ -0,0 +1,97 @@
+package com.rabinchuk.userservice.service;
+
+import com.rabinchuk.userservice.AbstractIntegrationTest;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
+import com.rabinchuk.userservice.dto.UserResponseDto;
+import com.rabinchuk.userservice.model.User;
+import com.rabinchuk.userservice.repository.CardInfoRepository;
+import com.rabinchuk.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "/cleanup_users.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class UserServiceQueryCountIntegrationTest extends AbstractIntegrationTest {
+
+    private static final int USER_COUNT = 10;
+    private static final int CARDS_PER_USER = 3;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardInfoRepository cardInfoRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Long> userIds;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames()
+                .forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+
+        userIds = IntStream.range(0, USER_COUNT)
+                .mapToObj(index -> userRepository.save(TestDataFactory.createUserWithCards(index, CARDS_PER_USER)))
+                .map(User::getId)
+                .toList();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Get all users loads a page of ids, then users and cards in one query")
+    void testGetAllQueryCount() {
+        CursorPageResponseDto<UserResponseDto> page = userService.getAll(null, USER_COUNT + 1);
+
+        assertThat(page.content()).hasSize(USER_COUNT)
+                .allSatisfy(user -> assertThat(user.cards()).hasSize(CARDS_PER_USER));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Get users by ids loads users and cards in one query")
+    void testGetByIdsQueryCount() {
+        List<UserResponseDto> users = userService.getByIds(userIds);
+
+        assertThat(users).hasSize(USER_COUNT)
+                .allSatisfy(user -> assertThat(user.cards()).hasSize(CARDS_PER_USER));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Delete user removes the user and its cards in one statement")
+    void testDeleteByIdQueryCount() {
+        Long id = userIds.get(0);
+
+        userService.deleteById(id);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(userRepository.existsById(id)).isFalse();
+        assertThat(cardInfoRepository.findDtosByUserId(id)).isEmpty();
+    }
+}
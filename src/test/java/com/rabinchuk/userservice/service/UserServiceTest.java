@@ -1,30 +1,57 @@
 package com.rabinchuk.userservice.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rabinchuk.userservice.batching.BatchLoader;
+import com.rabinchuk.userservice.cache.CacheInvalidationPublisher;
+import com.rabinchuk.userservice.cache.CacheInvalidator;
+import com.rabinchuk.userservice.cache.CacheNames;
+import com.rabinchuk.userservice.cache.SimpleSharedCacheAccessor;
+import com.rabinchuk.userservice.cache.TwoLevelCache;
+import com.rabinchuk.userservice.cache.TwoLevelCacheManager;
+import com.rabinchuk.userservice.cache.TwoLevelCacheMetrics;
+import com.rabinchuk.userservice.cache.TwoLevelCacheSettings;
+import com.rabinchuk.userservice.dto.CursorPageResponseDto;
 import com.rabinchuk.userservice.dto.UserRequestDto;
 import com.rabinchuk.userservice.dto.UserResponseDto;
 import com.rabinchuk.userservice.mapper.UserMapper;
 import com.rabinchuk.userservice.model.User;
+import com.rabinchuk.userservice.pagination.InvalidCursorException;
+import com.rabinchuk.userservice.pagination.KeysetPagination;
+import com.rabinchuk.userservice.repository.DeletedUser;
 import com.rabinchuk.userservice.repository.UserRepository;
+import com.rabinchuk.userservice.search.InvalidSearchQueryException;
 import com.rabinchuk.userservice.service.impl.UserServiceImpl;
+import com.rabinchuk.userservice.versioning.PreconditionFailedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.anyFloat;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -39,6 +66,21 @@ public class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    @Mock
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Spy
+    private KeysetPagination keysetPagination = new KeysetPagination(100);
+
+    @Mock
+    private BatchLoader<Long, UserResponseDto> userBatchLoader;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -65,48 +107,96 @@ public class UserServiceTest {
     @Test
     @DisplayName("Get all users")
     void testGetAllUsers() {
-        List<User> users = List.of(user1, user2);
-
-        when(userRepository.findAll()).thenReturn(users);
-        when(userMapper.toDto(user1)).thenReturn(userResponseDto1);
-        when(userMapper.toDto(user2)).thenReturn(userResponseDto2);
+        when(userRepository.findIdsAfter(0L, Limit.of(21))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findDtosByIdIn(List.of(1L, 2L))).thenReturn(List.of(userResponseDto1, userResponseDto2));
         List<UserResponseDto> expected = List.of(userResponseDto1, userResponseDto2);
 
-        List<UserResponseDto> result = userService.getAll();
+        CursorPageResponseDto<UserResponseDto> result = userService.getAll(null, 20);
 
-        assertThat(result).isNotNull().hasSize(2);
-        assertEquals(expected, result);
-        verify(userRepository, times(1)).findAll();
+        assertEquals(expected, result.content());
+        assertThat(result.nextCursor()).isNull();
+        verify(userRepository, times(1)).findIdsAfter(0L, Limit.of(21));
+    }
+
+    @Test
+    @DisplayName("Get all users returns a cursor when more users follow")
+    void testGetAllUsersWithNextPage() {
+        when(userRepository.findIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findDtosByIdIn(List.of(1L))).thenReturn(List.of(userResponseDto1));
+
+        CursorPageResponseDto<UserResponseDto> result = userService.getAll(null, 1);
+
+        assertThat(result.content()).containsExactly(userResponseDto1);
+        assertThat(keysetPagination.afterId(result.nextCursor())).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Get all users continues after the cursor")
+    void testGetAllUsersAfterCursor() {
+        String cursor = keysetPagination.toPage(List.of(1L, 2L), 1, id -> id).nextCursor();
+        when(userRepository.findIdsAfter(1L, Limit.of(2))).thenReturn(List.of(2L));
+        when(userRepository.findDtosByIdIn(List.of(2L))).thenReturn(List.of(userResponseDto2));
+
+        CursorPageResponseDto<UserResponseDto> result = userService.getAll(cursor, 1);
+
+        assertThat(result.content()).containsExactly(userResponseDto2);
+        assertThat(result.nextCursor()).isNull();
     }
 
     @Test
     @DisplayName("Get all users should return empty list")
     void testGetAllUsersWithEmptyList() {
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.findIdsAfter(0L, Limit.of(21))).thenReturn(Collections.emptyList());
 
-        List<UserResponseDto> result = userService.getAll();
+        CursorPageResponseDto<UserResponseDto> result = userService.getAll(null, 20);
 
-        assertThat(result).isEmpty();
-        verify(userRepository).findAll();
-        verify(userMapper, never()).toDto(any());
+        assertThat(result.content()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Get all users with malformed cursor throws exception")
+    void testGetAllUsersWithInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> userService.getAll("not a cursor", 20));
+        verify(userRepository, never()).findIdsAfter(any(Long.class), any());
+    }
+
+    @Test
+    @DisplayName("Search with too short query throws exception")
+    void testSearchWithTooShortQuery() {
+        assertThrows(InvalidSearchQueryException.class, () -> userService.search(" jo ", null, 20));
+        verify(userRepository, never()).searchRanked(anyString(), anyString(), anyFloat(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Search returns users in ranking order with a cursor after the last one")
+    void testSearch() {
+        List<Tuple> ranking = List.of(rankedRow(2L, 1.5f), rankedRow(1L, 0.4f));
+        when(userRepository.searchRanked("jord", "jord%", Float.MAX_VALUE, 0L, 2)).thenReturn(ranking);
+        when(userRepository.findDtosByIdIn(List.of(2L))).thenReturn(List.of(userResponseDto2));
+
+        CursorPageResponseDto<UserResponseDto> firstPage = userService.search("jord", null, 1);
+
+        assertThat(firstPage.content()).containsExactly(userResponseDto2);
+        assertThat(keysetPagination.afterRankedKey(firstPage.nextCursor())).isEqualTo(new KeysetPagination.RankedKey(1.5f, 2L));
     }
 
     @Test
     @DisplayName("Get user by id")
     void testGetUserById() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
-        when(userMapper.toDto(user1)).thenReturn(userResponseDto1);
+        when(userBatchLoader.load(1L)).thenReturn(Optional.of(userResponseDto1));
 
         UserResponseDto result = userService.getById(1L);
 
         assertThat(result).isNotNull().isEqualTo(userResponseDto1);
-        verify(userRepository).findById(1L);
+        verify(userBatchLoader).load(1L);
+        verify(userMapper, never()).toDto(any());
     }
 
     @Test
     @DisplayName("Get user by id should throw exception")
     void testGetUserByIdWithInvalidId() {
-        when(userRepository.findById(100L)).thenReturn(Optional.empty());
+        when(userBatchLoader.load(100L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> userService.getById(100L));
     }
@@ -114,9 +204,8 @@ public class UserServiceTest {
     @Test
     @DisplayName("Get users by ids")
     void testGetUserByIds() {
-        when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(user1, user2));
-        when(userMapper.toDto(user1)).thenReturn(userResponseDto1);
-        when(userMapper.toDto(user2)).thenReturn(userResponseDto2);
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_CACHE)).thenReturn(createCache(CacheNames.USER_CACHE));
+        when(userRepository.findDtosByIdIn(Set.of(1L, 2L))).thenReturn(List.of(userResponseDto2, userResponseDto1));
         List<UserResponseDto> expected = List.of(userResponseDto1, userResponseDto2);
 
         List<UserResponseDto> result = userService.getByIds(List.of(1L, 2L));
@@ -124,7 +213,21 @@ public class UserServiceTest {
         assertThat(result).isNotNull().hasSize(2);
         assertEquals(expected, result);
 
-        verify(userRepository).findAllById(List.of(1L, 2L));
+        verify(userRepository).findDtosByIdIn(Set.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Get users by ids loads only cache misses")
+    void testGetUserByIdsLoadsOnlyMisses() {
+        TwoLevelCache userCache = createCache(CacheNames.USER_CACHE);
+        userCache.put(1L, userResponseDto1);
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_CACHE)).thenReturn(userCache);
+        when(userRepository.findDtosByIdIn(Set.of(2L))).thenReturn(List.of(userResponseDto2));
+
+        List<UserResponseDto> result = userService.getByIds(List.of(2L, 1L, 2L));
+
+        assertEquals(List.of(userResponseDto2, userResponseDto1), result);
+        verify(userRepository).findDtosByIdIn(Set.of(2L));
     }
 
     @Test
@@ -159,52 +262,71 @@ public class UserServiceTest {
                 .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
-        when(userRepository.save(any(User.class))).thenReturn(user1);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user1);
         when(userMapper.toDto(user1)).thenReturn(expectedResponse);
 
-        UserResponseDto actualResponse = userService.updateById(1L, userUpdateDto);
+        UserResponseDto actualResponse = userService.updateById(1L, userUpdateDto, null);
 
         assertThat(actualResponse).isNotNull().isEqualTo(expectedResponse);
         assertThat(actualResponse.name()).isEqualTo(expectedResponse.name());
 
         verify(userRepository).findById(1L);
         verify(userMapper).updateUserFromDto(userUpdateDto, user1);
-        verify(userRepository).save(user1);
+        verify(userRepository).saveAndFlush(user1);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_CACHE, user1.getId());
     }
 
     @Test
     @DisplayName("Update user should throw exception")
     void testUpdateUserWithInvalidId() {
         when(userRepository.findById(100L)).thenReturn(Optional.empty());
-        assertThrows(EntityNotFoundException.class, () -> userService.updateById(100L, userRequestDto1));
+        assertThrows(EntityNotFoundException.class, () -> userService.updateById(100L, userRequestDto1, null));
+    }
+
+    @Test
+    @DisplayName("Update user with a stale version should throw exception")
+    void testUpdateUserWithStaleVersion() {
+        user1.setVersion(5L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateById(1L, userRequestDto1, 4L));
+        verify(userMapper, never()).updateUserFromDto(any(), any());
+        verify(userRepository, never()).saveAndFlush(any());
     }
 
     @Test
     @DisplayName("Delete user by id")
     void testDeleteUserById() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
-        doNothing().when(userRepository).deleteById(1L);
+        when(userRepository.deleteByIdReturningCards(1L))
+                .thenReturn(Optional.of(new DeletedUser(user1.getEmail(), List.of(5L, 6L))));
 
         userService.deleteById(1L);
 
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(userRepository, times(1)).deleteByIdReturningCards(1L);
+        verify(userRepository, never()).findById(any());
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.CARD_CACHE, 5L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.CARD_CACHE, 6L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_CACHE, 1L);
+        verify(cacheInvalidator).evictAfterCommit(CacheNames.USER_ID_CACHE, user1.getEmail());
     }
 
     @Test
     @DisplayName("Delete user by id should throw exception")
     void testDeleteUserByIdWithInvalidId() {
-        when(userRepository.findById(100L)).thenReturn(Optional.empty());
+        when(userRepository.deleteByIdReturningCards(100L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> userService.deleteById(100L));
-        verify(userRepository, never()).deleteById(100L);
+        verify(cacheInvalidator, never()).evictAfterCommit(CacheNames.USER_CACHE, 100L);
     }
 
     @Test
     @DisplayName("Get user by email")
     void testGetUserByEmail() {
         String email = "michael.jordan@gmail.com";
-        when(userRepository.findUserByEmail(email)).thenReturn(Optional.of(user1));
-        when(userMapper.toDto(user1)).thenReturn(userResponseDto1);
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_ID_CACHE)).thenReturn(createCache(CacheNames.USER_ID_CACHE));
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_CACHE)).thenReturn(createCache(CacheNames.USER_CACHE));
+        when(userRepository.findIdByEmail(email)).thenReturn(Optional.of(1L));
+        when(userBatchLoader.load(1L)).thenReturn(Optional.of(userResponseDto1));
 
         UserResponseDto result = userService.getUserByEmail(email);
 
@@ -214,8 +336,37 @@ public class UserServiceTest {
     @Test
     @DisplayName("Get user by email should throw exception")
     void testGetUserByInvalidEmail() {
-        when(userRepository.findUserByEmail("invalid.email")).thenReturn(Optional.empty());
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_ID_CACHE)).thenReturn(createCache(CacheNames.USER_ID_CACHE));
+        when(userRepository.findIdByEmail("invalid.email")).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserByEmail("invalid.email"));
+    }
+
+    @Test
+    @DisplayName("Repeated lookup of a missing email is answered from the cache")
+    void testGetUserByInvalidEmailIsNegativelyCached() {
+        when(cacheManager.getTwoLevelCache(CacheNames.USER_ID_CACHE)).thenReturn(createCache(CacheNames.USER_ID_CACHE));
+        when(userRepository.findIdByEmail("invalid.email")).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> userService.getUserByEmail("invalid.email"));
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserByEmail("invalid.email"));
+
+        verify(userRepository, times(1)).findIdByEmail("invalid.email");
+    }
+
+    private TwoLevelCache createCache(String name) {
+        ConcurrentMapCache redisCache = new ConcurrentMapCache(name, false);
+        return new TwoLevelCache(redisCache, Caffeine.newBuilder().build(),
+                new SimpleSharedCacheAccessor(redisCache), cacheInvalidationPublisher,
+                new TwoLevelCacheSettings(100, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofMillis(10), 0),
+                Runnable::run, key -> {},
+                new TwoLevelCacheMetrics(name, new SimpleMeterRegistry()));
+    }
+
+    private static Tuple rankedRow(Long id, Float score) {
+        Tuple row = mock(Tuple.class);
+        when(row.get("id", Long.class)).thenReturn(id);
+        when(row.get("score", Float.class)).thenReturn(score);
+        return row;
     }
 }